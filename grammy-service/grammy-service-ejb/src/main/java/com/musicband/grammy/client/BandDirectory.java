@@ -0,0 +1,170 @@
+package com.musicband.grammy.client;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicband.grammy.model.CacheStatistics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bands known to main-api, keyed by id, so that adding a single does not cost a main-api round trip.
+ * Entries older than the refresh interval are still returned and reloaded in the background, a slow or
+ * unavailable main-api only delays requests for bands that are not cached yet. A failed reload keeps the
+ * old entry and is retried after another refresh interval, until the entry expires. A 404 is remembered
+ * for a few seconds only, bands created in main-api meanwhile show up quickly.
+ */
+@ApplicationScoped
+public class BandDirectory {
+
+    private static final Logger LOGGER = Logger.getLogger(BandDirectory.class.getName());
+
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+    private static final int DEFAULT_REFRESH_SECONDS = 30;
+    private static final int DEFAULT_EXPIRE_SECONDS = 600;
+    private static final int DEFAULT_NEGATIVE_EXPIRE_SECONDS = 5;
+
+    @Inject
+    private MainApiClient mainApiClient;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private long maxSize;
+    private long refreshNanos;
+    private LoadingCache<Integer, Entry> bands;
+
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        maxSize = Long.getLong("band.directory.max.size", DEFAULT_MAX_SIZE);
+        Duration refresh = Duration.ofSeconds(Integer.getInteger("band.directory.refresh.seconds", DEFAULT_REFRESH_SECONDS));
+        long expireNanos = Duration.ofSeconds(
+                Integer.getInteger("band.directory.expire.seconds", DEFAULT_EXPIRE_SECONDS)).toNanos();
+        long negativeExpireNanos = Duration.ofSeconds(
+                Integer.getInteger("band.directory.negative.expire.seconds", DEFAULT_NEGATIVE_EXPIRE_SECONDS)).toNanos();
+        refreshNanos = refresh.toNanos();
+        bands = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Integer, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Integer id, Entry entry, long currentTime) {
+                        return entry.band != null ? expireNanos : negativeExpireNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer id, Entry entry, long currentTime, long currentDuration) {
+                        // A kept entry must not outlive the expiry of its original load
+                        return entry.kept ? currentDuration : expireAfterCreate(id, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer id, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(refresh)
+                .executor(executor)
+                .recordStats()
+                .build(new CacheLoader<Integer, Entry>() {
+                    @Override
+                    public Entry load(Integer id) {
+                        return new Entry(mainApiClient.findBand(id));
+                    }
+
+                    /*
+                     * Caffeine would keep the old value on a failed reload too, but without a new write time
+                     * every following read starts another reload against a main-api that is already failing.
+                     */
+                    @Override
+                    public Entry reload(Integer id, Entry oldEntry) {
+                        try {
+                            return load(id);
+                        } catch (RuntimeException e) {
+                            refreshFailures.increment();
+                            LOGGER.warning("Refreshing band " + id + " failed, keeping the cached entry: " + e.getMessage());
+                            return new Entry(oldEntry.band, oldEntry.loadedAt, true);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Returns the band, or {@code null} when main-api does not know it.
+     */
+    public BandSummary find(Integer bandId) {
+        // Peeked quietly so that a lookup which has to load is not counted as a stale or negative hit
+        Entry cached = bands.policy().getIfPresentQuietly(bandId);
+        Entry entry = bands.get(bandId);
+        if (cached != null) {
+            record(cached);
+        }
+        return entry.band;
+    }
+
+    /**
+     * Whether a recent lookup got a 404 for this band. Does not call main-api.
+     */
+    public boolean isKnownMissing(Integer bandId) {
+        Entry entry = bands.policy().getIfPresentQuietly(bandId);
+        if (entry == null || entry.band != null) {
+            return false;
+        }
+        record(entry);
+        return true;
+    }
+
+    /**
+     * Stores what main-api just returned for the band, {@code null} meaning it answered 404.
+     */
+    public void put(Integer bandId, BandSummary band) {
+        bands.put(bandId, new Entry(band));
+    }
+
+    public void invalidate(Integer bandId) {
+        bands.invalidate(bandId);
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = bands.stats();
+        return new CacheStatistics("band-directory", bands.estimatedSize(), maxSize,
+                stats.hitCount(), stats.missCount(), staleHits.sum(), negativeHits.sum(),
+                stats.loadFailureCount() + refreshFailures.sum(), stats.evictionCount());
+    }
+
+    private void record(Entry entry) {
+        if (entry.band == null) {
+            negativeHits.increment();
+        } else if (System.nanoTime() - entry.loadedAt > refreshNanos) {
+            staleHits.increment();
+        }
+    }
+
+    private static final class Entry {
+        final BandSummary band;
+        final long loadedAt;
+        final boolean kept;
+
+        Entry(BandSummary band) {
+            this(band, System.nanoTime(), false);
+        }
+
+        Entry(BandSummary band, long loadedAt, boolean kept) {
+            this.band = band;
+            this.loadedAt = loadedAt;
+            this.kept = kept;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.musicband.grammy.client;
+
+import com.musicband.codec.XmlCodec;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * The part of a main-api {@code <musicBand>} grammy needs, read in one StAX pass. Elements it
+ * does not know are skipped, so main-api can add fields without breaking this client.
+ */
+public final class BandSummary {
+
+    private final Integer id;
+    private final String name;
+    private final Integer numberOfParticipants;
+
+    public BandSummary(Integer id, String name, Integer numberOfParticipants) {
+        this.id = id;
+        this.name = name;
+        this.numberOfParticipants = numberOfParticipants;
+    }
+
+    public static BandSummary read(InputStream xml) throws XMLStreamException {
+        XMLStreamReader reader = XmlCodec.createReader(xml);
+        try {
+            Integer id = null;
+            String name = null;
+            Integer numberOfParticipants = null;
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == 0 && !"musicBand".equals(reader.getLocalName())) {
+                        throw new XMLStreamException("Expected <musicBand>, got <" + reader.getLocalName() + ">");
+                    }
+                    if (depth == 1) {
+                        switch (reader.getLocalName()) {
+                            case "id":
+                                id = Integer.valueOf(reader.getElementText().trim());
+                                continue;
+                            case "name":
+                                name = reader.getElementText();
+                                continue;
+                            case "numberOfParticipants":
+                                numberOfParticipants = Integer.valueOf(reader.getElementText().trim());
+                                continue;
+                            default:
+                                break;
+                        }
+                    }
+                    depth++;
+                }
+            }
+            return new BandSummary(id, name, numberOfParticipants);
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Malformed number in <musicBand>: " + e.getMessage(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getNumberOfParticipants() {
+        return numberOfParticipants;
+    }
+
+    @Override
+    public String toString() {
+        return "BandSummary(id=" + id + ", name=" + name + ", numberOfParticipants=" + numberOfParticipants + ")";
+    }
+}
@@ -1,9 +1,28 @@
 package com.musicband.grammy.client;
 
+import com.musicband.grammy.client.balancer.Instance;
+import com.musicband.grammy.client.balancer.InstanceRegistry;
+import com.musicband.grammy.client.balancer.LoadBalancer;
 import com.musicband.grammy.consul.ConsulServiceDiscovery;
+import com.musicband.grammy.model.ConnectionPoolStatistics;
+import com.musicband.grammy.model.InstanceStatistics;
+import com.musicband.grammy.model.InstanceStatisticsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
@@ -11,6 +30,13 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 
+import javax.net.ssl.SSLContext;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 @ApplicationScoped
@@ -20,25 +46,128 @@ public class MainApiClient {
     private static final String SERVICE_NAME = "main-api";
     private static final String API_PATH = "/api/v1";
 
-    private final CloseableHttpClient httpClient;
+    private static final int DEFAULT_MAX_TOTAL = 50;
+    private static final int DEFAULT_MAX_PER_ROUTE = 20;
+    private static final int DEFAULT_CONNECT_TIMEOUT_MS = 2000;
+    private static final int DEFAULT_SOCKET_TIMEOUT_MS = 5000;
+    private static final int DEFAULT_LEASE_TIMEOUT_MS = 1000;
+    private static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+    private static final int DEFAULT_TIME_TO_LIVE_SECONDS = 300;
+    private static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final int DEFAULT_TLS_SESSION_CACHE_SIZE = 64;
+    private static final String DEFAULT_BALANCER = "ewma";
+    private static final int DEFAULT_EWMA_INITIAL_MS = 10;
+    private static final int DEFAULT_EWMA_DECAY_SECONDS = 10;
+    private static final int DEFAULT_EJECT_AFTER_FAILURES = 5;
+    private static final int DEFAULT_EJECT_SECONDS = 30;
+
+    private MainApiConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private LoadBalancer balancer;
+    private InstanceRegistry instances;
 
     @Inject
     private ConsulServiceDiscovery consulServiceDiscovery;
 
-    public MainApiClient() {
+    /*
+     * One pool for all main-api calls. Connections stay open between requests, a request that cannot
+     * get a connection, connect or read in time fails with an IOException, which callers report as 503.
+     * Connections idle for longer than the keep-alive are closed in the background, before main-api
+     * drops them on its side.
+     */
+    @PostConstruct
+    public void init() {
+        long keepAliveMillis = Integer.getInteger("main.api.keepalive.seconds", DEFAULT_KEEP_ALIVE_SECONDS) * 1000L;
+
+        // Sessions are cached per SSLContext, new connections to the same instance resume instead of a full handshake
+        SSLContext sslContext = createInsecureSSLContext();
+        sslContext.getClientSessionContext().setSessionCacheSize(
+                Integer.getInteger("main.api.tls.session.cache.size", DEFAULT_TLS_SESSION_CACHE_SIZE));
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE))
+                .build();
+
+        connectionManager = new MainApiConnectionManager(registry,
+                Integer.getInteger("main.api.connection.ttl.seconds", DEFAULT_TIME_TO_LIVE_SECONDS), TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(Integer.getInteger("main.api.pool.max.total", DEFAULT_MAX_TOTAL));
+        connectionManager.setDefaultMaxPerRoute(Integer.getInteger("main.api.pool.max.per.route", DEFAULT_MAX_PER_ROUTE));
+        connectionManager.setValidateAfterInactivity(
+                Integer.getInteger("main.api.validate.after.inactivity.ms", DEFAULT_VALIDATE_AFTER_INACTIVITY_MS));
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setTcpNoDelay(true)
+                .setSoKeepAlive(true)
+                .setSoTimeout(Integer.getInteger("main.api.socket.timeout.ms", DEFAULT_SOCKET_TIMEOUT_MS))
+                .build());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Integer.getInteger("main.api.connect.timeout.ms", DEFAULT_CONNECT_TIMEOUT_MS))
+                .setSocketTimeout(Integer.getInteger("main.api.socket.timeout.ms", DEFAULT_SOCKET_TIMEOUT_MS))
+                .setConnectionRequestTimeout(Integer.getInteger("main.api.lease.timeout.ms", DEFAULT_LEASE_TIMEOUT_MS))
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return advertised > 0 ? Math.min(advertised, keepAliveMillis) : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .disableAutomaticRetries()
+                .build();
+
+        balancer = LoadBalancer.create(System.getProperty("main.api.balancer", DEFAULT_BALANCER));
+        instances = new InstanceRegistry(
+                TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("main.api.balancer.ewma.initial.ms", DEFAULT_EWMA_INITIAL_MS)),
+                TimeUnit.SECONDS.toNanos(Integer.getInteger("main.api.balancer.ewma.decay.seconds", DEFAULT_EWMA_DECAY_SECONDS)),
+                Integer.getInteger("main.api.balancer.eject.failures", DEFAULT_EJECT_AFTER_FAILURES),
+                TimeUnit.SECONDS.toNanos(Integer.getInteger("main.api.balancer.eject.seconds", DEFAULT_EJECT_SECONDS)));
+        LOGGER.info("MainApiClient initialized with Consul service discovery, " + balancer.getName() + " balancing, pool of " + connectionManager.getMaxTotal()
+                + " connections (" + connectionManager.getDefaultMaxPerRoute() + " per instance)");
+    }
+
+    @PreDestroy
+    public void close() {
         try {
-            this.httpClient = HttpClients.custom()
-                    .setSSLContext(createInsecureSSLContext())
-                    .setSSLHostnameVerifier(new NoopHostnameVerifier())
-                    .build();
-            LOGGER.info("MainApiClient initialized with Consul service discovery");
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize HTTP client", e);
+            if (httpClient != null) {
+                httpClient.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close HTTP client: " + e.getMessage());
         }
     }
 
-    private String getMainApiUrl() {
-        String baseUrl = consulServiceDiscovery.getServiceUrl(SERVICE_NAME);
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return connectionManager.getStatistics();
+    }
+
+    public InstanceStatisticsResponse getInstanceStatistics() {
+        long now = System.nanoTime();
+        List<InstanceStatistics> statistics = new ArrayList<>();
+        for (Instance instance : instances.getInstances()) {
+            statistics.add(new InstanceStatistics(instance.getUrl(), instance.getInFlight(),
+                    instance.getRequestCount(), instance.getFailureCount(),
+                    instance.getLatencyNanos(now) / 1e6, instance.isEjected(now)));
+        }
+        return new InstanceStatisticsResponse(balancer.getName(), statistics);
+    }
+
+    /*
+     * null when Consul knows no healthy instance, the request then goes to the fallback URL and is
+     * not tracked.
+     */
+    private Instance chooseInstance() {
+        List<String> urls = consulServiceDiscovery.getServiceUrls(SERVICE_NAME);
+        if (urls.isEmpty()) {
+            return null;
+        }
+        return balancer.choose(instances.resolve(urls));
+    }
+
+    private String getMainApiUrl(Instance instance) {
+        String baseUrl = instance != null ? instance.getUrl() : null;
 
         if (baseUrl == null) {
             
@@ -49,9 +178,9 @@ public class MainApiClient {
         return baseUrl + API_PATH;
     }
 
-    private javax.net.ssl.SSLContext createInsecureSSLContext() {
+    private SSLContext createInsecureSSLContext() {
         try {
-            javax.net.ssl.SSLContext sslContext = javax.net.ssl.SSLContext.getInstance("TLS");
+            SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, new javax.net.ssl.TrustManager[]{
                     new javax.net.ssl.X509TrustManager() {
                         public void checkClientTrusted(java.security.cert.X509Certificate[] chain, String authType) {}
@@ -65,84 +194,92 @@ public class MainApiClient {
         }
     }
 
-    public boolean bandExists(Integer bandId) {
-        try {
-            String mainApiUrl = getMainApiUrl();
-            LOGGER.info("Checking if band exists, bandId: " + bandId + " at " + mainApiUrl);
+    /**
+     * Fetches the band in one GET. Returns {@code null} when main-api answers 404, so callers
+     * get existence and the fields they need from the same round trip.
+     */
+    public BandSummary findBand(Integer bandId) {
+        Instance instance = chooseInstance();
+        String mainApiUrl = getMainApiUrl(instance);
+        LOGGER.fine("Fetching band " + bandId + " from " + mainApiUrl);
 
-            HttpGet httpGet = new HttpGet(mainApiUrl + "/bands/" + bandId);
-            httpGet.setHeader("Accept", "application/xml");
+        HttpGet httpGet = new HttpGet(mainApiUrl + "/bands/" + bandId);
+        httpGet.setHeader("Accept", "application/xml");
+        return execute(httpGet, "GET", bandId, instance);
+    }
 
-            org.apache.http.HttpResponse response = httpClient.execute(httpGet);
-            int status = response.getStatusLine().getStatusCode();
-            EntityUtils.consume(response.getEntity());
+    /**
+     * Sets numberOfParticipants with a PATCH and returns the band main-api sends back, or
+     * {@code null} when the band does not exist.
+     */
+    public BandSummary updateParticipantsCount(Integer bandId, Integer newCount) {
+        Instance instance = chooseInstance();
+        String mainApiUrl = getMainApiUrl(instance);
+        String patchXml = String.format(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                        "<musicBand>" +
+                        "<numberOfParticipants>%d</numberOfParticipants>" +
+                        "</musicBand>",
+                newCount
+        );
+        LOGGER.fine("Sending PATCH for band " + bandId + " to " + mainApiUrl + ", numberOfParticipants=" + newCount);
 
-            LOGGER.info("Band exists check response status: " + status);
-            return status == 200;
-        } catch (Exception e) {
-            LOGGER.severe("Failed to check band existence: " + e.getMessage());
-            throw new RuntimeException("Main API service unavailable: " + e.getMessage());
-        }
+        HttpPatch httpPatch = new HttpPatch(mainApiUrl + "/bands/" + bandId);
+        httpPatch.setHeader("Content-Type", "application/xml");
+        httpPatch.setHeader("Accept", "application/xml");
+        httpPatch.setEntity(new StringEntity(patchXml, "UTF-8"));
+        return execute(httpPatch, "PATCH", bandId, instance);
     }
 
-    public String getBandName(Integer bandId) {
+    private BandSummary execute(HttpUriRequest request, String method, Integer bandId, Instance instance) {
+        if (instance == null) {
+            return execute(request, method, bandId);
+        }
+        long start = instance.start();
+        boolean success = false;
         try {
-            String mainApiUrl = getMainApiUrl();
-            LOGGER.info("Fetching band name for bandId: " + bandId + " from " + mainApiUrl);
-
-            HttpGet httpGet = new HttpGet(mainApiUrl + "/bands/" + bandId);
-            httpGet.setHeader("Accept", "application/xml");
+            BandSummary band = execute(request, method, bandId);
+            success = true;
+            return band;
+        } catch (MainApiStatusException e) {
+            // A 4xx is the request's fault, not the instance's
+            success = e.status < 500;
+            throw e;
+        } finally {
+            instance.complete(start, success);
+        }
+    }
 
-            org.apache.http.HttpResponse response = httpClient.execute(httpGet);
+    private BandSummary execute(HttpUriRequest request, String method, Integer bandId) {
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
             int status = response.getStatusLine().getStatusCode();
-
+            HttpEntity entity = response.getEntity();
             if (status == 200) {
-                String xml = EntityUtils.toString(response.getEntity(), "UTF-8");
-                LOGGER.info("Received XML: " + xml);
-
-                int nameStart = xml.indexOf("<name>") + 6;
-                int nameEnd = xml.indexOf("</name>");
-                if (nameStart > 5 && nameEnd > nameStart) {
-                    return xml.substring(nameStart, nameEnd);
+                try (InputStream body = entity.getContent()) {
+                    return BandSummary.read(body);
+                } catch (XMLStreamException e) {
+                    LOGGER.severe("Unreadable band " + bandId + " from " + method + ": " + e.getMessage());
+                    throw new RuntimeException("Main API service error: " + e.getMessage());
                 }
-                LOGGER.warning("Failed to parse band name from XML");
+            }
+            EntityUtils.consume(entity);
+            if (status == 404) {
                 return null;
             }
-
-            EntityUtils.consume(response.getEntity());
-            LOGGER.warning("Failed to fetch band name, status: " + status);
-            return null;
-        } catch (Exception e) {
-            LOGGER.severe("Error fetching band name: " + e.getMessage());
-            throw new RuntimeException("Main API service error: " + e.getMessage());
+            LOGGER.warning(method + " for band " + bandId + " failed, status: " + status);
+            throw new MainApiStatusException(status, "Main API service error: " + method + " returned " + status);
+        } catch (IOException e) {
+            LOGGER.severe(method + " for band " + bandId + " failed: " + e.getMessage());
+            throw new RuntimeException("Main API service unavailable: " + e.getMessage());
         }
     }
 
-    public boolean updateParticipantsCount(Integer bandId, Integer newCount) {
-        try {
-            String mainApiUrl = getMainApiUrl();
-            String patchXml = String.format(
-                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
-                            "<musicBand>" +
-                            "<numberOfParticipants>%d</numberOfParticipants>" +
-                            "</musicBand>",
-                    newCount
-            );
-            LOGGER.info("Sending PATCH request for bandId: " + bandId + " to " + mainApiUrl + ", body: " + patchXml);
-
-            HttpPatch httpPatch = new HttpPatch(mainApiUrl + "/bands/" + bandId);
-            httpPatch.setHeader("Content-Type", "application/xml");
-            httpPatch.setEntity(new StringEntity(patchXml, "UTF-8"));
-
-            org.apache.http.HttpResponse response = httpClient.execute(httpPatch);
-            int status = response.getStatusLine().getStatusCode();
-            EntityUtils.consume(response.getEntity());
+    private static final class MainApiStatusException extends RuntimeException {
+        private final int status;
 
-            LOGGER.info("PATCH response status: " + status);
-            return status == 200;
-        } catch (Exception e) {
-            LOGGER.severe("Error in PATCH request: " + e.getMessage());
-            throw new RuntimeException("Main API service error: " + e.getMessage());
+        MainApiStatusException(int status, String message) {
+            super(message);
+            this.status = status;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.musicband.grammy.client;
+
+import com.musicband.grammy.model.ConnectionPoolStatistics;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool of {@link MainApiClient} that also times how long a request waits for a connection
+ * and how long it keeps it leased.
+ */
+final class MainApiConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Map<HttpClientConnection, Long> leasedAt = new ConcurrentHashMap<>();
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+    private final AtomicLong maxHoldNanos = new AtomicLong();
+
+    MainApiConnectionManager(Registry<ConnectionSocketFactory> registry, long timeToLive, TimeUnit unit) {
+        super(registry, null, null, null, timeToLive, unit);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(timeout, unit);
+                    long now = System.nanoTime();
+                    record(now - start, leases, waitNanos, maxWaitNanos);
+                    leasedAt.put(connection, now);
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeouts.increment();
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection connection, Object state, long keepAlive, TimeUnit unit) {
+        Long start = leasedAt.remove(connection);
+        if (start != null) {
+            record(System.nanoTime() - start, releases, holdNanos, maxHoldNanos);
+        }
+        super.releaseConnection(connection, state, keepAlive, unit);
+    }
+
+    ConnectionPoolStatistics getStatistics() {
+        PoolStats pool = getTotalStats();
+        return new ConnectionPoolStatistics("main-api", pool.getMax(), getDefaultMaxPerRoute(),
+                pool.getLeased(), pool.getAvailable(), pool.getPending(),
+                leases.sum(), leaseTimeouts.sum(),
+                averageMillis(waitNanos, leases), maxWaitNanos.get() / 1e6,
+                averageMillis(holdNanos, releases), maxHoldNanos.get() / 1e6);
+    }
+
+    private static void record(long nanos, LongAdder count, LongAdder total, AtomicLong max) {
+        count.increment();
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static double averageMillis(LongAdder total, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0.0 : total.sum() / 1e6 / n;
+    }
+}
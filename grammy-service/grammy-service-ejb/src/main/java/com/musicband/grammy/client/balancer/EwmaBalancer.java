@@ -0,0 +1,63 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices on expected latency: the decayed response time EWMA scaled by the requests
+ * already in flight. Instances ejected after consecutive failures are skipped, unless all of them are.
+ */
+final class EwmaBalancer implements LoadBalancer {
+
+    static final String NAME = "ewma";
+
+    // Pairs drawn before giving up on finding an instance that is not ejected
+    private static final int ATTEMPTS = 3;
+
+    @Override
+    public Instance choose(List<Instance> instances) {
+        int size = instances.size();
+        if (size == 1) {
+            return instances.get(0);
+        }
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Instance best = null;
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            Instance a = instances.get(first);
+            Instance b = instances.get(second);
+            boolean aEjected = a.isEjected(now);
+            boolean bEjected = b.isEjected(now);
+            if (aEjected != bEjected) {
+                return aEjected ? b : a;
+            }
+            Instance cheaper = cost(b, now) < cost(a, now) ? b : a;
+            if (!aEjected) {
+                return cheaper;
+            }
+            if (best == null) {
+                best = cheaper;
+            }
+        }
+        for (Instance instance : instances) {
+            if (!instance.isEjected(now)) {
+                return instance;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private static double cost(Instance instance, long now) {
+        return instance.getLatencyNanos(now) * (instance.getInFlight() + 1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One main-api instance as seen by this client: requests in flight, a peak-sensitive EWMA of response
+ * times and recent failures. Callers report every request with {@link #start()} and {@link #complete}.
+ * The EWMA starts at, and without new samples decays back to, a typical latency given at creation.
+ */
+public final class Instance {
+
+    private final String url;
+    private final double initialNanos;
+    private final long decayNanos;
+    private final int ejectAfterFailures;
+    private final long ejectNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    // Written under the lock, read without it; a reader mixing two updates is off by one sample at most
+    private volatile double ewmaNanos;
+    private volatile long ewmaStamp = System.nanoTime();
+
+    /**
+     * @param initialNanos where the EWMA starts: with 0 a new instance would look free and draw every
+     *                     request until its first responses came back
+     */
+    Instance(String url, long initialNanos, long decayNanos, int ejectAfterFailures, long ejectNanos) {
+        this.url = url;
+        this.initialNanos = initialNanos;
+        this.ewmaNanos = initialNanos;
+        this.decayNanos = decayNanos;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectNanos = ejectNanos;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * @param success {@code false} for I/O errors and 5xx answers, they count towards ejection
+     */
+    public void complete(long startNanos, boolean success) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        requests.increment();
+        observe(now - startNanos, now);
+        if (success) {
+            // Read first, a write on every success would bounce the cache line between callers
+            if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+        } else {
+            failures.increment();
+            if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+                consecutiveFailures.set(0);
+                ejectedUntil = now + ejectNanos;
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public boolean isEjected(long now) {
+        long until = ejectedUntil;
+        return until != 0 && now - until < 0;
+    }
+
+    /**
+     * The EWMA decayed towards the initial latency by the time since the last sample, so that an
+     * instance which was slow and then left alone gets probed again instead of being avoided forever.
+     * It does not decay to 0, an idle instance would then draw requests regardless of those in flight.
+     */
+    public double getLatencyNanos(long now) {
+        double ewma = ewmaNanos;
+        long idle = now - ewmaStamp;
+        return idle > 0 ? initialNanos + (ewma - initialNanos) * Math.exp(-(double) idle / decayNanos) : ewma;
+    }
+
+    // Sensitive to peaks: a slower response replaces the average at once, faster ones pull it down gradually
+    private synchronized void observe(long rtt, long now) {
+        double decayed = getLatencyNanos(now);
+        if (rtt > decayed) {
+            ewmaNanos = rtt;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, now - ewmaStamp) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + rtt * (1 - weight);
+        }
+        ewmaStamp = now;
+    }
+}
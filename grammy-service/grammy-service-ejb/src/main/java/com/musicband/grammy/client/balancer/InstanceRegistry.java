@@ -0,0 +1,92 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the instance URLs of the current discovery snapshot to {@link Instance} objects. Instances
+ * that stay in the snapshot keep their statistics, the ones that leave it are dropped. New instances
+ * start from the median latency of those already measured. Lookups for an unchanged snapshot only
+ * compare the list reference.
+ */
+public final class InstanceRegistry {
+
+    private final long initialNanos;
+    private final long decayNanos;
+    private final int ejectAfterFailures;
+    private final long ejectNanos;
+
+    private volatile Resolved resolved = new Resolved(List.of(), List.of());
+
+    /**
+     * @param initialNanos latency assumed for new instances while none has been measured yet
+     */
+    public InstanceRegistry(long initialNanos, long decayNanos, int ejectAfterFailures, long ejectNanos) {
+        this.initialNanos = initialNanos;
+        this.decayNanos = decayNanos;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectNanos = ejectNanos;
+    }
+
+    public List<Instance> resolve(List<String> urls) {
+        Resolved current = resolved;
+        if (current.urls == urls) {
+            return current.instances;
+        }
+        return update(urls);
+    }
+
+    public List<Instance> getInstances() {
+        return resolved.instances;
+    }
+
+    private synchronized List<Instance> update(List<String> urls) {
+        Resolved current = resolved;
+        if (current.urls == urls || current.urls.equals(urls)) {
+            resolved = new Resolved(urls, current.instances);
+            return current.instances;
+        }
+        Map<String, Instance> known = new HashMap<>();
+        for (Instance instance : current.instances) {
+            known.put(instance.getUrl(), instance);
+        }
+        long typical = typicalLatency(current.instances);
+        List<Instance> instances = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            Instance instance = known.get(url);
+            instances.add(instance != null ? instance
+                    : new Instance(url, typical, decayNanos, ejectAfterFailures, ejectNanos));
+        }
+        resolved = new Resolved(urls, List.copyOf(instances));
+        return resolved.instances;
+    }
+
+    // Median over the instances that answered at least once, the configured value when none did
+    private long typicalLatency(List<Instance> instances) {
+        long now = System.nanoTime();
+        double[] latencies = instances.stream()
+                .filter(instance -> instance.getRequestCount() > 0)
+                .mapToDouble(instance -> instance.getLatencyNanos(now))
+                .sorted()
+                .toArray();
+        if (latencies.length == 0) {
+            return initialNanos;
+        }
+        int middle = latencies.length / 2;
+        double median = latencies.length % 2 == 1 ? latencies[middle]
+                : (latencies[middle - 1] + latencies[middle]) / 2;
+        return (long) median;
+    }
+
+    private static final class Resolved {
+        final List<String> urls;
+        final List<Instance> instances;
+
+        Resolved(List<String> urls, List<Instance> instances) {
+            this.urls = urls;
+            this.instances = instances;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.List;
+
+/**
+ * Picks the main-api instance for the next request. Implementations are called concurrently and
+ * must not lock on the request path.
+ */
+public interface LoadBalancer {
+
+    /**
+     * @param instances current healthy instances, never empty
+     */
+    Instance choose(List<Instance> instances);
+
+    String getName();
+
+    static LoadBalancer create(String name) {
+        switch (name) {
+            case RoundRobinBalancer.NAME:
+                return new RoundRobinBalancer();
+            case PowerOfTwoChoicesBalancer.NAME:
+                return new PowerOfTwoChoicesBalancer();
+            case EwmaBalancer.NAME:
+                return new EwmaBalancer();
+            default:
+                throw new IllegalArgumentException("Unknown load balancer '" + name + "', expected "
+                        + RoundRobinBalancer.NAME + ", " + PowerOfTwoChoicesBalancer.NAME + " or " + EwmaBalancer.NAME);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Two random instances, the one with fewer requests in flight wins. An overloaded instance builds up
+ * in-flight requests and stops being picked without any shared state besides the counters.
+ */
+final class PowerOfTwoChoicesBalancer implements LoadBalancer {
+
+    static final String NAME = "p2c";
+
+    @Override
+    public Instance choose(List<Instance> instances) {
+        int size = instances.size();
+        if (size == 1) {
+            return instances.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = instances.get(first);
+        Instance b = instances.get(second);
+        return b.getInFlight() < a.getInFlight() ? b : a;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
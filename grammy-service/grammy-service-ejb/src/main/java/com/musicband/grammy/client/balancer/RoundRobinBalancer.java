@@ -0,0 +1,24 @@
+package com.musicband.grammy.client.balancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every instance in turn, regardless of how it is doing.
+ */
+final class RoundRobinBalancer implements LoadBalancer {
+
+    static final String NAME = "round-robin";
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public Instance choose(List<Instance> instances) {
+        return instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
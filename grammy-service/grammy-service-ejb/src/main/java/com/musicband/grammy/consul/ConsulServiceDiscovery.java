@@ -1,69 +1,239 @@
 package com.musicband.grammy.consul;
 
 import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.ConsulRawClient;
 import com.ecwid.consul.v1.QueryParams;
 import com.ecwid.consul.v1.Response;
 import com.ecwid.consul.v1.health.model.HealthService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+/**
+ * Healthy instances per service, kept in memory. The first lookup of a service asks Consul once and
+ * starts a watch thread that follows changes with blocking queries, every later lookup only reads the
+ * current snapshot. When Consul fails the last list it returned stays in use.
+ * <p>
+ * The watches share one HTTP client, closing it on undeploy breaks their blocked reads at once
+ * rather than after up to {@code consul.watch.wait.seconds}.
+ */
 @ApplicationScoped
 public class ConsulServiceDiscovery {
 
     private static final Logger LOGGER = Logger.getLogger(ConsulServiceDiscovery.class.getName());
-    
-    private final ConsulClient consulClient;
-    private final Random random = new Random();
 
-    public ConsulServiceDiscovery() {
+    private static final int DEFAULT_WAIT_SECONDS = 55;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    private CloseableHttpClient httpClient;
+    private ConsulClient consulClient;
+    private long waitSeconds;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
         String consulHost = System.getProperty("consul.host", "localhost");
         int consulPort = Integer.parseInt(System.getProperty("consul.port", "8500"));
-        this.consulClient = new ConsulClient(consulHost, consulPort);
+        this.waitSeconds = Integer.getInteger("consul.watch.wait.seconds", DEFAULT_WAIT_SECONDS);
+        // Consul adds up to wait/16 of jitter to a blocking query, the read has to outlast both
+        int socketTimeoutMillis = (int) TimeUnit.SECONDS.toMillis(waitSeconds + waitSeconds / 16 + 10);
+        this.httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                        .setConnectionRequestTimeout(CONNECT_TIMEOUT_MILLIS)
+                        .setSocketTimeout(socketTimeoutMillis)
+                        .build())
+                .setMaxConnTotal(64)
+                .setMaxConnPerRoute(64)
+                .disableAutomaticRetries()
+                .useSystemProperties()
+                .build();
+        this.consulClient = new ConsulClient(new ConsulRawClient(consulHost, consulPort, httpClient));
         LOGGER.info("ConsulServiceDiscovery initialized with Consul at " + consulHost + ":" + consulPort);
     }
 
-    
-    public String getServiceUrl(String serviceName) {
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Watch watch : watches.values()) {
+            watch.thread.interrupt();
+        }
+        // Interrupting does not end a blocked socket read, closing the pool closes its connections
         try {
-            Response<List<HealthService>> healthyServices = 
-                consulClient.getHealthServices(serviceName, true, QueryParams.DEFAULT);
-            
-            List<HealthService> services = healthyServices.getValue();
-            
-            if (services == null || services.isEmpty()) {
-                LOGGER.warning("No healthy instances found for service: " + serviceName);
-                return null;
+            httpClient.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close Consul HTTP client: " + e.getMessage());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_WAIT_MILLIS);
+        for (Watch watch : watches.values()) {
+            try {
+                watch.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (watch.thread.isAlive()) {
+                LOGGER.warning("Consul watch for " + watch.serviceName + " did not stop within "
+                        + SHUTDOWN_WAIT_MILLIS + "ms");
             }
+        }
+    }
+
 
-            
-            HealthService selectedService = services.get(random.nextInt(services.size()));
-            
-            String address = selectedService.getService().getAddress();
-            int port = selectedService.getService().getPort();
-            
-            String url = "https://" + address + ":" + port;
-            LOGGER.info("Selected service instance: " + url + " for " + serviceName);
-            
-            return url;
-            
-        } catch (Exception e) {
-            LOGGER.severe("Failed to discover service " + serviceName + " from Consul: " + e.getMessage());
+    public String getServiceUrl(String serviceName) {
+        List<String> urls = watch(serviceName).snapshot.urls;
+        if (urls.isEmpty()) {
             return null;
         }
+        return urls.get(ThreadLocalRandom.current().nextInt(urls.size()));
+    }
+
+
+    /**
+     * URLs of the healthy instances, the same list object until the next change.
+     */
+    public List<String> getServiceUrls(String serviceName) {
+        return watch(serviceName).snapshot.urls;
     }
 
-    
+
     public List<HealthService> getHealthyInstances(String serviceName) {
-        try {
-            Response<List<HealthService>> response = 
-                consulClient.getHealthServices(serviceName, true, QueryParams.DEFAULT);
-            return response.getValue();
-        } catch (Exception e) {
-            LOGGER.severe("Failed to get healthy instances for " + serviceName + ": " + e.getMessage());
-            return List.of();
+        return watch(serviceName).snapshot.instances;
+    }
+
+    private Watch watch(String serviceName) {
+        Watch watch = watches.get(serviceName);
+        if (watch != null) {
+            return watch;
+        }
+        // Seeded outside the map: a Consul call inside computeIfAbsent would block lookups of
+        // other services hashed to the same bin. Racing first lookups each ask Consul once,
+        // only the watch that gets into the map is started.
+        Watch created = new Watch(serviceName);
+        created.seed();
+        Watch existing = watches.putIfAbsent(serviceName, created);
+        if (existing != null) {
+            return existing;
+        }
+        created.thread.start();
+        return created;
+    }
+
+    /*
+     * One blocking query at a time: Consul holds it until the index moves past the one we sent or
+     * the wait time runs out, so an idle service costs one request per wait period.
+     */
+    private final class Watch implements Runnable {
+        private final String serviceName;
+        private final Thread thread;
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        Watch(String serviceName) {
+            this.serviceName = serviceName;
+            this.thread = threadFactory.newThread(this);
+            thread.setName("consul-watch-" + serviceName);
+            thread.setDaemon(true);
+        }
+
+        void seed() {
+            try {
+                update(consulClient.getHealthServices(serviceName, true, QueryParams.DEFAULT));
+            } catch (Exception e) {
+                LOGGER.severe("Failed to discover service " + serviceName + " from Consul: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            long backoff = MIN_BACKOFF_MILLIS;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    update(consulClient.getHealthServices(serviceName, true,
+                            new QueryParams(waitSeconds, snapshot.index)));
+                    backoff = MIN_BACKOFF_MILLIS;
+                } catch (Exception e) {
+                    if (!running) {
+                        return;
+                    }
+                    LOGGER.warning("Consul watch for " + serviceName + " failed, keeping " + snapshot.urls.size()
+                            + " known instances: " + e.getMessage());
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        }
+
+        private void update(Response<List<HealthService>> response) {
+            Long consulIndex = response.getConsulIndex();
+            boolean indexed = consulIndex != null && consulIndex > 0;
+            long index = indexed ? consulIndex : 0;
+            Snapshot current = snapshot;
+            // An index that goes back means Consul state was reset, start over from a full read
+            if (index < current.index) {
+                index = 0;
+            } else if (indexed && index == current.index && current != Snapshot.EMPTY) {
+                return;
+            }
+
+            List<HealthService> instances = response.getValue() != null ? List.copyOf(response.getValue()) : List.of();
+            List<String> urls = new ArrayList<>(instances.size());
+            for (HealthService instance : instances) {
+                urls.add("https://" + instance.getService().getAddress() + ":" + instance.getService().getPort());
+            }
+            snapshot = new Snapshot(instances, List.copyOf(urls), index);
+
+            if (!urls.equals(current.urls)) {
+                if (urls.isEmpty()) {
+                    LOGGER.warning("No healthy instances found for service: " + serviceName);
+                } else {
+                    LOGGER.info("Healthy instances of " + serviceName + ": " + urls);
+                }
+            }
+            // Consul must not answer without a positive index, some versions did. The list is
+            // still current, but a query with index 0 returns at once: fail so the watch backs off
+            if (!indexed) {
+                throw new IllegalStateException("Consul answered without X-Consul-Index");
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(List.of(), List.of(), 0);
+
+        final List<HealthService> instances;
+        final List<String> urls;
+        final long index;
+
+        Snapshot(List<HealthService> instances, List<String> urls, long index) {
+            this.instances = instances;
+            this.urls = urls;
+            this.index = index;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.musicband.grammy.ejb;
 
+import com.musicband.grammy.client.BandDirectory;
+import com.musicband.grammy.client.BandSummary;
 import com.musicband.grammy.client.MainApiClient;
 import com.musicband.grammy.model.AddParticipantResponse;
 import com.musicband.grammy.model.Participant;
@@ -17,10 +19,12 @@ public class ParticipantServiceBean implements ParticipantServiceRemote {
     @Inject
     private MainApiClient mainApiClient;
 
+    @Inject
+    private BandDirectory bandDirectory;
+
     @Override
     public AddParticipantResponse addParticipantToBand(Integer bandId, Participant participant) {
-        
-        if (!mainApiClient.bandExists(bandId)) {
+        if (bandDirectory.isKnownMissing(bandId)) {
             throw new IllegalArgumentException("Band with id " + bandId + " not found");
         }
 
@@ -32,16 +36,14 @@ public class ParticipantServiceBean implements ParticipantServiceRemote {
         
         long participantsCount = repository.countByBandId(bandId);
 
-        
-        boolean updated = mainApiClient.updateParticipantsCount(bandId, (int) participantsCount);
-        if (!updated) {
-            throw new RuntimeException("Failed to update participants count in Main API");
+        // One PATCH both checks the band exists and returns its name; a 404 rolls the insert back
+        BandSummary band = mainApiClient.updateParticipantsCount(bandId, (int) participantsCount);
+        bandDirectory.put(bandId, band);
+        if (band == null) {
+            throw new IllegalArgumentException("Band with id " + bandId + " not found");
         }
 
         
-        String bandName = mainApiClient.getBandName(bandId);
-
-        
-        return new AddParticipantResponse(created, (int) participantsCount, bandId, bandName);
+        return new AddParticipantResponse(created, (int) participantsCount, bandId, band.getName());
     }
 }
@@ -1,6 +1,7 @@
 package com.musicband.grammy.ejb;
 
-import com.musicband.grammy.client.MainApiClient;
+import com.musicband.grammy.client.BandSummary;
+import com.musicband.grammy.client.BandDirectory;
 import com.musicband.grammy.model.AddSingleResponse;
 import com.musicband.grammy.model.Single;
 import com.musicband.grammy.repository.SingleRepository;
@@ -16,12 +17,13 @@ public class SingleServiceBean implements SingleServiceRemote {
     private SingleRepository repository;
 
     @Inject
-    private MainApiClient mainApiClient;
+    private BandDirectory bandDirectory;
 
     @Override
     public AddSingleResponse addSingleToBand(Integer bandId, Single single) {
         
-        if (!mainApiClient.bandExists(bandId)) {
+        BandSummary band = bandDirectory.find(bandId);
+        if (band == null) {
             throw new IllegalArgumentException("Band with id " + bandId + " not found");
         }
 
@@ -31,10 +33,6 @@ public class SingleServiceBean implements SingleServiceRemote {
         Single created = repository.create(single);
 
         
-        String bandName = mainApiClient.getBandName(bandId);
-        System.out.println("BandName: " + bandName);
-
-        
-        return new AddSingleResponse(created, bandId, bandName);
+        return new AddSingleResponse(created, bandId, band.getName());
     }
 }
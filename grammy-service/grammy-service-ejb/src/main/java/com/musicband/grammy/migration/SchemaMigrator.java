@@ -0,0 +1,43 @@
+package com.musicband.grammy.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+import javax.sql.DataSource;
+import java.util.logging.Logger;
+
+/**
+ * Applies {@code db/migration} to the grammy database before anything else starts.
+ * Flyway records a checksum per script in {@code flyway_schema_history} and refuses edited ones,
+ * and holds a PostgreSQL advisory lock while migrating, so nodes deployed together apply each
+ * version once. Databases created earlier by hbm2ddl are baselined, V1 is idempotent for them.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    @Resource(lookup = "java:jboss/datasources/GrammyDS")
+    private DataSource dataSource;
+
+    @PostConstruct
+    public void migrate() {
+        MigrateResult result = Flyway.configure(SchemaMigrator.class.getClassLoader())
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+        LOGGER.info("Schema at version " + result.targetSchemaVersion
+                + ", applied " + result.migrationsExecuted + " migration(s)");
+    }
+}
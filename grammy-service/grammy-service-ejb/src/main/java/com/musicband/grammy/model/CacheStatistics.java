@@ -0,0 +1,43 @@
+package com.musicband.grammy.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+
+@XmlRootElement(name = "cacheStatistics")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+public class CacheStatistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String name;
+    private Long size;
+    private Long maxSize;
+    private Long hitCount;
+    private Long missCount;
+    private Long staleHitCount;
+    private Long negativeHitCount;
+    private Long loadFailureCount;
+    private Long evictionCount;
+    private Double hitRatio;
+
+    public CacheStatistics(String name, Long size, Long maxSize, Long hitCount, Long missCount,
+                           Long staleHitCount, Long negativeHitCount, Long loadFailureCount, Long evictionCount) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.staleHitCount = staleHitCount;
+        this.negativeHitCount = negativeHitCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        long requests = (hitCount != null ? hitCount : 0) + (missCount != null ? missCount : 0);
+        this.hitRatio = requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
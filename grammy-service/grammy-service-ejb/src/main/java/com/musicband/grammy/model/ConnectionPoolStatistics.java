@@ -0,0 +1,32 @@
+package com.musicband.grammy.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+
+@XmlRootElement(name = "connectionPoolStatistics")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionPoolStatistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String name;
+    private Integer maxTotal;
+    private Integer maxPerRoute;
+    private Integer leased;
+    private Integer available;
+    private Integer pending;
+    private Long leaseCount;
+    private Long leaseTimeoutCount;
+    private Double averageLeaseWaitMillis;
+    private Double maxLeaseWaitMillis;
+    private Double averageLeaseHoldMillis;
+    private Double maxLeaseHoldMillis;
+}
@@ -0,0 +1,26 @@
+package com.musicband.grammy.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+
+@XmlRootElement(name = "instanceStatistics")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceStatistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String url;
+    private Integer inFlight;
+    private Long requestCount;
+    private Long failureCount;
+    private Double latencyEwmaMillis;
+    private Boolean ejected;
+}
@@ -0,0 +1,25 @@
+package com.musicband.grammy.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+@XmlRootElement(name = "instanceStatisticsResponse")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceStatisticsResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String balancer;
+    @XmlElement(name = "instance")
+    private List<InstanceStatistics> instances;
+}
@@ -1,6 +1,7 @@
 package com.musicband.grammy.model;
 
 import com.musicband.grammy.adapter.LocalDateAdapter;
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -53,5 +54,6 @@ public class Participant implements Serializable {
 
     @Column(nullable = false, name = "band_id")
     @XmlTransient
+    @JsonbTransient
     private Integer bandId;
 }
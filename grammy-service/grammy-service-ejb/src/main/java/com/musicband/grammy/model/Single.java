@@ -1,6 +1,7 @@
 package com.musicband.grammy.model;
 
 import com.musicband.grammy.adapter.LocalDateAdapter;
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -56,5 +57,6 @@ public class Single implements Serializable {
 
     @Column(nullable = false, name = "band_id")
     @XmlTransient
+    @JsonbTransient
     private Integer bandId;
 }
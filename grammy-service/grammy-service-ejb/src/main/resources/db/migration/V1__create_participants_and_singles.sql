@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS participants (
+    id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       TEXT NOT NULL,
+    role       TEXT NOT NULL,
+    joinDate   DATE NOT NULL,
+    instrument TEXT,
+    band_id    INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS singles (
+    id            INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title         TEXT NOT NULL,
+    duration      INTEGER NOT NULL CHECK (duration >= 1),
+    releaseDate   DATE NOT NULL,
+    chartPosition INTEGER CHECK (chartPosition >= 1),
+    band_id       INTEGER NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Lookups and counts by band, e.g. ParticipantRepository.countByBandId
+CREATE INDEX IF NOT EXISTS idx_participants_band_id ON participants (band_id);
+CREATE INDEX IF NOT EXISTS idx_singles_band_id ON singles (band_id);
@@ -0,0 +1,25 @@
+package com.musicband.grammy.resource;
+
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import com.musicband.grammy.model.AddParticipantResponse;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+
+@Provider
+@Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+public class AddParticipantResponseXmlWriter extends StreamingXmlWriter<AddParticipantResponse> {
+
+    public AddParticipantResponseXmlWriter() {
+        super(AddParticipantResponse.class);
+    }
+
+    @Override
+    protected void write(XMLStreamWriter writer, AddParticipantResponse response) throws XMLStreamException {
+        GrammyXml.writeAddParticipantResponse(writer, response);
+    }
+}
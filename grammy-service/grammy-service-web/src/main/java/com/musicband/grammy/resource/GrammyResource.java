@@ -1,11 +1,16 @@
 package com.musicband.grammy.resource;
 
+import com.musicband.codec.jaxrs.CborProvider;
+import com.musicband.codec.jaxrs.NegotiatedTypes;
+import com.musicband.grammy.client.BandDirectory;
+import com.musicband.grammy.client.MainApiClient;
 import com.musicband.grammy.ejb.ParticipantServiceRemote;
 import com.musicband.grammy.ejb.SingleServiceRemote;
 import com.musicband.grammy.model.*;
 
 import com.musicband.grammy.model.Error;
 import jakarta.ejb.EJB;
+import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -21,11 +26,17 @@ public class GrammyResource {
     @EJB
     private ParticipantServiceRemote participantService;
 
+    @Inject
+    private BandDirectory bandDirectory;
+
+    @Inject
+    private MainApiClient mainApiClient;
+
 
     @POST
     @Path("/{band-id}/singles/add")
-    @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
     public Response addSingleToBand(
             @PathParam("band-id") Integer bandId,
             @Valid Single single) {
@@ -66,8 +77,8 @@ public class GrammyResource {
 
     @POST
     @Path("/{band-id}/participants/add")
-    @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
     public Response addParticipantToBand(
             @PathParam("band-id") Integer bandId,
             @Valid Participant participant) {
@@ -106,6 +117,45 @@ public class GrammyResource {
         }
     }
 
+    @GET
+    @Path("/statistics/cache")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getCacheStatistics() {
+        try {
+            CacheStatistics statistics = bandDirectory.getStatistics();
+            return Response.ok(statistics).build();
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/statistics/connections")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getConnectionPoolStatistics() {
+        try {
+            ConnectionPoolStatistics statistics = mainApiClient.getConnectionPoolStatistics();
+            return Response.ok(statistics).build();
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/statistics/instances")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getInstanceStatistics() {
+        try {
+            InstanceStatisticsResponse response = mainApiClient.getInstanceStatistics();
+            return Response.ok(response).build();
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
     
     private Response createErrorResponse(int code, String message, String details) {
         Error error = new Error(code, message, details);
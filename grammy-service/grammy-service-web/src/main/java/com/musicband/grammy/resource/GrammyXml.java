@@ -0,0 +1,69 @@
+package com.musicband.grammy.resource;
+
+import com.musicband.grammy.model.AddParticipantResponse;
+import com.musicband.grammy.model.AddSingleResponse;
+import com.musicband.grammy.model.Participant;
+import com.musicband.grammy.model.Single;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import static com.musicband.codec.XmlValues.writeElement;
+
+/**
+ * Response bodies of {@link GrammyResource} written field by field, in the element order and
+ * format of their JAXB mapping. A mapping change has to be repeated here.
+ */
+final class GrammyXml {
+
+    private GrammyXml() {
+    }
+
+    static void writeAddParticipantResponse(XMLStreamWriter writer, AddParticipantResponse response)
+            throws XMLStreamException {
+        writer.writeStartElement("addParticipantResponse");
+        Participant participant = response.getParticipant();
+        if (participant != null) {
+            writer.writeStartElement("participant");
+            writeElement(writer, "id", participant.getId());
+            writeElement(writer, "n", participant.getName());
+            writeElement(writer, "role", participant.getRole());
+            writeElement(writer, "joinDate",
+                    participant.getJoinDate() != null ? participant.getJoinDate().toString() : null);
+            writeElement(writer, "instrument", participant.getInstrument());
+            writer.writeEndElement();
+        }
+        writeElement(writer, "updatedParticipantsCount", response.getUpdatedParticipantsCount());
+        if (response.getBandInfo() != null) {
+            writeBandInfo(writer, response.getBandInfo().getId(), response.getBandInfo().getName());
+        }
+        writer.writeEndElement();
+    }
+
+    static void writeAddSingleResponse(XMLStreamWriter writer, AddSingleResponse response)
+            throws XMLStreamException {
+        writer.writeStartElement("addSingleResponse");
+        Single single = response.getSingle();
+        if (single != null) {
+            writer.writeStartElement("single");
+            writeElement(writer, "id", single.getId());
+            writeElement(writer, "title", single.getTitle());
+            writeElement(writer, "duration", single.getDuration());
+            writeElement(writer, "releaseDate",
+                    single.getReleaseDate() != null ? single.getReleaseDate().toString() : null);
+            writeElement(writer, "chartPosition", single.getChartPosition());
+            writer.writeEndElement();
+        }
+        if (response.getBandInfo() != null) {
+            writeBandInfo(writer, response.getBandInfo().getId(), response.getBandInfo().getName());
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeBandInfo(XMLStreamWriter writer, Integer id, String name) throws XMLStreamException {
+        writer.writeStartElement("bandInfo");
+        writeElement(writer, "id", id);
+        writeElement(writer, "n", name);
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,86 @@
+package com.musicband.grammy.resource;
+
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import com.musicband.codec.jaxrs.XmlCodecProvider;
+import com.musicband.grammy.model.AddParticipantResponse;
+import com.musicband.grammy.model.AddSingleResponse;
+import com.musicband.grammy.model.Participant;
+import com.musicband.grammy.model.Single;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link GrammyXml} has to write what {@link XmlCodecProvider} writes through JAXB, byte for byte.
+ */
+class GrammyXmlTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    static Stream<AddParticipantResponse> participantResponses() {
+        Participant empty = new Participant();
+        Participant full = new Participant(7, "Danny <Carey> & co", "drums", LocalDate.of(1990, 1, 1),
+                "Sonor \"Signature\"", 3);
+        Participant unicode = new Participant(8, "Måns – 東京 🎸", "vocals\r\nlead", LocalDate.of(2024, 2, 29),
+                null, 3);
+
+        AddParticipantResponse noBand = new AddParticipantResponse();
+        noBand.setParticipant(full);
+        return Stream.of(
+                new AddParticipantResponse(),
+                noBand,
+                new AddParticipantResponse(empty, null, null, null),
+                new AddParticipantResponse(full, 5, 3, "Tool"),
+                new AddParticipantResponse(unicode, 1, 3, ""));
+    }
+
+    static Stream<AddSingleResponse> singleResponses() {
+        Single empty = new Single();
+        Single full = new Single(11, "Schism & <Lateralus>", 403, LocalDate.of(2001, 1, 15), 1, 3);
+        Single noChart = new Single(12, "Ænema\ttab", 399, LocalDate.of(1996, 9, 17), null, 3);
+
+        AddSingleResponse noBand = new AddSingleResponse();
+        noBand.setSingle(full);
+        return Stream.of(
+                new AddSingleResponse(),
+                noBand,
+                new AddSingleResponse(empty, null, null),
+                new AddSingleResponse(full, 3, "Tool"),
+                new AddSingleResponse(noChart, Integer.MAX_VALUE, "Ø & Ö"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("participantResponses")
+    void writesParticipantResponsesLikeJaxb(AddParticipantResponse response) throws IOException {
+        assertEquals(jaxb(response, AddParticipantResponse.class),
+                streaming(response, AddParticipantResponse.class, new AddParticipantResponseXmlWriter()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("singleResponses")
+    void writesSingleResponsesLikeJaxb(AddSingleResponse response) throws IOException {
+        assertEquals(jaxb(response, AddSingleResponse.class),
+                streaming(response, AddSingleResponse.class, new AddSingleResponseXmlWriter()));
+    }
+
+    private static String jaxb(Object value, Class<?> type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlCodecProvider().writeTo(value, type, type, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static <T> String streaming(T value, Class<T> type, StreamingXmlWriter<T> writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(value, type, type, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
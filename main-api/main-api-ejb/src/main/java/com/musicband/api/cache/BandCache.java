@@ -0,0 +1,111 @@
+package com.musicband.api.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.event.BandsBulkLoadedEvent;
+import com.musicband.api.model.CacheStatistics;
+import com.musicband.api.model.Coordinates;
+import com.musicband.api.model.Label;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.repository.MusicBandRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of detached bands for {@code getBandById}.
+ * Caffeine's W-TinyLFU admission keeps the frequently requested bands resident, hot entries are
+ * reloaded in the background once they get older than the refresh interval.
+ * Missing ids are cached too, so repeated lookups of an unknown band do not hit the database either.
+ */
+@ApplicationScoped
+public class BandCache {
+
+    private static final long DEFAULT_MAX_WEIGHT = 4 * 1024 * 1024;
+    private static final int DEFAULT_REFRESH_SECONDS = 30;
+    private static final int DEFAULT_EXPIRE_SECONDS = 300;
+
+    // Rough heap footprint of a band with its embeddables, without the name characters
+    private static final int BASE_WEIGHT = 256;
+
+    @Inject
+    private MusicBandRepository repository;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private long maxWeight;
+    private LoadingCache<Integer, Optional<MusicBand>> bands;
+
+    @PostConstruct
+    public void init() {
+        maxWeight = Long.getLong("band.cache.max.weight", DEFAULT_MAX_WEIGHT);
+        bands = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Integer id, Optional<MusicBand> band) -> weigh(band))
+                .refreshAfterWrite(Duration.ofSeconds(Integer.getInteger("band.cache.refresh.seconds", DEFAULT_REFRESH_SECONDS)))
+                .expireAfterWrite(Duration.ofSeconds(Integer.getInteger("band.cache.expire.seconds", DEFAULT_EXPIRE_SECONDS)))
+                .executor(executor)
+                .recordStats()
+                .build(id -> repository.findById(id).map(BandCache::snapshot));
+    }
+
+    public MusicBand get(Integer id) {
+        return bands.get(id).map(BandCache::snapshot).orElse(null);
+    }
+
+    public void invalidate(Integer id) {
+        bands.invalidate(id);
+    }
+
+    /*
+     * The first invalidation runs as the write happens, the second one after the transaction ends
+     * and drops whatever a concurrent reader loaded from the not yet committed state.
+     */
+    void onChange(@Observes BandChangedEvent event) {
+        invalidate(event.getBandId());
+    }
+
+    void afterCompletion(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandChangedEvent event) {
+        invalidate(event.getBandId());
+    }
+
+    void onBulkLoad(@Observes BandsBulkLoadedEvent event) {
+        bands.invalidateAll();
+    }
+
+    void afterBulkLoad(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandsBulkLoadedEvent event) {
+        bands.invalidateAll();
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = bands.stats();
+        long weight = bands.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+        return new CacheStatistics("bands", weight, maxWeight,
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    private static int weigh(Optional<MusicBand> band) {
+        return band.map(b -> BASE_WEIGHT + 2 * (b.getName() != null ? b.getName().length() : 0)).orElse(1);
+    }
+
+    private static MusicBand snapshot(MusicBand band) {
+        Coordinates coordinates = band.getCoordinates() != null
+                ? new Coordinates(band.getCoordinates().getX(), band.getCoordinates().getY())
+                : null;
+        Label label = band.getLabel() != null ? new Label(band.getLabel().getSales()) : null;
+        return new MusicBand(band.getId(), band.getName(), coordinates, band.getCreationDate(),
+                band.getNumberOfParticipants(), band.getAlbumsCount(), band.getGenre(), label, band.getVersion());
+    }
+}
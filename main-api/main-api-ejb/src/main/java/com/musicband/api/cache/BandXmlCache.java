@@ -0,0 +1,117 @@
+package com.musicband.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.event.BandsBulkLoadedEvent;
+import com.musicband.api.model.CacheStatistics;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.xml.BandXml;
+import com.musicband.codec.Utf8XmlWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encoded {@code <musicBand>} elements, so list pages and {@code GET /bands/{id}} copy bytes
+ * instead of serializing the same hot bands on every request. An entry is only used for the
+ * version it was written from; every write bumps the version, and the entries of changed bands
+ * are also dropped (twice, like {@link BandCache}) so a deleted and recreated id cannot match.
+ */
+@ApplicationScoped
+public class BandXmlCache {
+
+    private static final long DEFAULT_MAX_WEIGHT = 8 * 1024 * 1024;
+
+    // Entry and array headers next to the fragment bytes
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private long maxWeight;
+    private Cache<Integer, Fragment> fragments;
+
+    @PostConstruct
+    public void init() {
+        maxWeight = Long.getLong("band.xml.cache.max.weight", DEFAULT_MAX_WEIGHT);
+        fragments = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Integer id, Fragment fragment) -> ENTRY_OVERHEAD + fragment.bytes.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Writes the band from its cached fragment when {@code writer} is a {@link Utf8XmlWriter},
+     * element by element otherwise.
+     */
+    public void writeBand(XMLStreamWriter writer, MusicBand band) throws XMLStreamException {
+        if (!(writer instanceof Utf8XmlWriter) || band.getId() == null || band.getVersion() == null) {
+            BandXml.writeBand(writer, band);
+            return;
+        }
+        ((Utf8XmlWriter) writer).writeRaw(fragment(band));
+    }
+
+    public void invalidate(Integer id) {
+        fragments.invalidate(id);
+    }
+
+    void onChange(@Observes BandChangedEvent event) {
+        invalidate(event.getBandId());
+    }
+
+    void afterCompletion(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandChangedEvent event) {
+        invalidate(event.getBandId());
+    }
+
+    void onBulkLoad(@Observes BandsBulkLoadedEvent event) {
+        fragments.invalidateAll();
+    }
+
+    void afterBulkLoad(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandsBulkLoadedEvent event) {
+        fragments.invalidateAll();
+    }
+
+    public CacheStatistics getStatistics() {
+        long weight = fragments.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+        return new CacheStatistics("bandXml", weight, maxWeight,
+                hits.sum(), misses.sum(), fragments.stats().evictionCount());
+    }
+
+    private byte[] fragment(MusicBand band) throws XMLStreamException {
+        // Read through the map view, a fragment of another version counts as a miss
+        Fragment cached = fragments.asMap().get(band.getId());
+        if (cached != null && cached.version == band.getVersion()) {
+            hits.increment();
+            return cached.bytes;
+        }
+        misses.increment();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        Utf8XmlWriter writer = new Utf8XmlWriter(bytes);
+        BandXml.writeBand(writer, band);
+        writer.close();
+        Fragment fragment = new Fragment(band.getVersion(), bytes.toByteArray());
+        fragments.put(band.getId(), fragment);
+        return fragment.bytes;
+    }
+
+    private static final class Fragment {
+        private final long version;
+        private final byte[] bytes;
+
+        private Fragment(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+}
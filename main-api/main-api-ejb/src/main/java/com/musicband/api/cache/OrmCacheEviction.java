@@ -0,0 +1,91 @@
+package com.musicband.api.cache;
+
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.event.BandsBulkLoadedEvent;
+import com.musicband.api.model.MusicBand;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * Updates and deletes bypass the persistence context, so Hibernate does not know to evict
+ * the second-level cache for them. Same two-phase invalidation as {@link BandCache}.
+ * Band entries are evicted per write, the query regions once per transaction however many bands it writes.
+ */
+@ApplicationScoped
+public class OrmCacheEviction {
+
+    private static final Object QUERY_REGIONS_EVICTED = OrmCacheEviction.class.getName() + ".queryRegionsEvicted";
+
+    @PersistenceUnit(unitName = "musicBandPU")
+    private EntityManagerFactory entityManagerFactory;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    void onChange(@Observes BandChangedEvent event) {
+        evictEntity(event.getBandId());
+        evictQueryRegions();
+    }
+
+    void afterCompletion(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandChangedEvent event) {
+        evictEntity(event.getBandId());
+    }
+
+    void onBulkLoad(@Observes BandsBulkLoadedEvent event) {
+        evictEntity(null);
+        evictQueryRegions();
+    }
+
+    void afterBulkLoad(@Observes(during = TransactionPhase.AFTER_COMPLETION) BandsBulkLoadedEvent event) {
+        evictEntity(null);
+    }
+
+    // A null id evicts every band
+    private void evictEntity(Integer id) {
+        Cache cache = cache();
+        if (id != null) {
+            cache.evictEntityData(MusicBand.class, id);
+        } else {
+            cache.evictEntityData(MusicBand.class);
+        }
+    }
+
+    /*
+     * Every cached query reads music_bands, so none of them survives a write anyway. The first write
+     * of a transaction evicts them and registers the second eviction for after the commit or rollback,
+     * later writes of the same transaction find the marker and skip both.
+     */
+    private void evictQueryRegions() {
+        if (transactions.getTransactionKey() == null) {
+            cache().evictQueryRegions();
+            return;
+        }
+        if (transactions.getResource(QUERY_REGIONS_EVICTED) != null) {
+            return;
+        }
+        transactions.putResource(QUERY_REGIONS_EVICTED, Boolean.TRUE);
+        cache().evictQueryRegions();
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                cache().evictQueryRegions();
+            }
+        });
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,82 @@
+package com.musicband.api.cache;
+
+import com.musicband.api.model.CacheStatistics;
+import com.musicband.api.model.MusicBand;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Second-level cache counters of {@code musicBandPU}, taken from Hibernate statistics.
+ * Regions do not report evictions, so evictionCount stays empty and removedCount reports entries put
+ * minus entries still resident, which also includes expired and invalidated entries.
+ */
+@ApplicationScoped
+public class OrmCacheStatistics {
+
+    private static final String ENTITY_REGION_SIZE = "hibernate.cache.infinispan.entity.memory.size";
+    private static final String QUERY_REGION_SIZE = "hibernate.cache.infinispan.query.memory.size";
+
+    @PersistenceUnit(unitName = "musicBandPU")
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> caches = new ArrayList<>();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return caches;
+        }
+
+        EntityStatistics entity = statistics.getEntityStatistics(MusicBand.class.getName());
+        long entitySize = regionSize(statistics, entity.getCacheRegionName(), false);
+        caches.add(regionStatistics("orm-entities", entitySize, configuredSize(ENTITY_REGION_SIZE),
+                entity.getCacheHitCount(), entity.getCacheMissCount(), entity.getCachePutCount()));
+
+        long querySize = regionSize(statistics, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, true);
+        caches.add(regionStatistics("orm-queries", querySize, configuredSize(QUERY_REGION_SIZE),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        return caches;
+    }
+
+    private long regionSize(Statistics statistics, String regionName, boolean queryRegion) {
+        if (regionName == null) {
+            return 0;
+        }
+
+        CacheRegionStatistics region;
+        try {
+            region = queryRegion
+                    ? statistics.getQueryRegionStatistics(regionName)
+                    : statistics.getDomainDataRegionStatistics(regionName);
+        } catch (IllegalArgumentException e) {
+            // Region is created lazily, nothing has been cached yet
+            return 0;
+        }
+
+        if (region == null || region.getElementCountInMemory() == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN) {
+            return 0;
+        }
+        return region.getElementCountInMemory();
+    }
+
+    private Long configuredSize(String property) {
+        Object value = entityManagerFactory.getProperties().get(property);
+        return value != null ? Long.valueOf(value.toString().trim()) : null;
+    }
+
+    private static CacheStatistics regionStatistics(String name, long size, Long maxSize,
+                                                    long hits, long misses, long puts) {
+        CacheStatistics region = new CacheStatistics(name, size, maxSize, hits, misses, null);
+        region.setRemovedCount(Math.max(0, puts - size));
+        return region;
+    }
+}
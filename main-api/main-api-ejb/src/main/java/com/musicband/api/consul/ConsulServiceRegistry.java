@@ -4,6 +4,7 @@ import com.ecwid.consul.v1.ConsulClient;
 import com.ecwid.consul.v1.agent.model.NewService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.ejb.DependsOn;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
 
@@ -13,6 +14,7 @@ import java.util.logging.Logger;
 
 @Singleton
 @Startup
+@DependsOn("SchemaMigrator")
 public class ConsulServiceRegistry {
 
     private static final Logger LOGGER = Logger.getLogger(ConsulServiceRegistry.class.getName());
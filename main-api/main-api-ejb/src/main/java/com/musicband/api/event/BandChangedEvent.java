@@ -0,0 +1,73 @@
+package com.musicband.api.event;
+
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+
+/**
+ * Fired by {@code MusicBandService} for every band write, inside the writing transaction.
+ * Carries the aggregated and indexed attributes before and after the write, {@code before} is null
+ * for a created band and {@code after} for a deleted one.
+ */
+public class BandChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Integer bandId;
+    private final Type type;
+    private final State before;
+    private final State after;
+
+    public BandChangedEvent(Integer bandId, Type type, State before, State after) {
+        this.bandId = bandId;
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    public Integer getBandId() {
+        return bandId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public State getBefore() {
+        return before;
+    }
+
+    public State getAfter() {
+        return after;
+    }
+
+    public static final class State {
+
+        private final String name;
+        private final Integer numberOfParticipants;
+        private final MusicGenre genre;
+
+        public State(String name, Integer numberOfParticipants, MusicGenre genre) {
+            this.name = name;
+            this.numberOfParticipants = numberOfParticipants;
+            this.genre = genre;
+        }
+
+        public static State of(MusicBand band) {
+            return new State(band.getName(), band.getNumberOfParticipants(), band.getGenre());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getNumberOfParticipants() {
+            return numberOfParticipants;
+        }
+
+        public MusicGenre getGenre() {
+            return genre;
+        }
+    }
+}
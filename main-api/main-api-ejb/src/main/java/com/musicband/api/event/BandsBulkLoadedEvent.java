@@ -0,0 +1,19 @@
+package com.musicband.api.event;
+
+/**
+ * Fired inside the writing transaction after bands were loaded in bulk with plain SQL.
+ * Any number of bands may have been created or replaced, so observers drop or rebuild
+ * everything they derived from {@code music_bands} instead of applying a delta.
+ */
+public class BandsBulkLoadedEvent {
+
+    private final long rowCount;
+
+    public BandsBulkLoadedEvent(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.musicband.api.exception;
+
+import jakarta.ejb.ApplicationException;
+
+/**
+ * The band was changed since the version the client based its write on.
+ */
+@ApplicationException(rollback = true)
+public class BandVersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer bandId;
+    private final Long currentVersion;
+
+    public BandVersionConflictException(Integer bandId, Long currentVersion) {
+        super("MusicBand with id " + bandId + " has been modified");
+        this.bandId = bandId;
+        this.currentVersion = currentVersion;
+    }
+
+    public Integer getBandId() {
+        return bandId;
+    }
+
+    /**
+     * Version seen during the failed write, or {@code null} when a concurrent commit got in first.
+     */
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
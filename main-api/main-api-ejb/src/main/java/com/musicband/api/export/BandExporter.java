@@ -0,0 +1,132 @@
+package com.musicband.api.export;
+
+import com.musicband.api.model.ExportFormat;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.repository.MusicBandRepository;
+import com.musicband.api.repository.query.BandQueryPlanner;
+import com.musicband.api.repository.query.BoundQuery;
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+import com.musicband.codec.Lease;
+import com.musicband.codec.XmlCodec;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.jboss.ejb3.annotation.TransactionTimeout;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full dumps for {@code GET /bands/export}. Rows are read through a forward-only cursor and
+ * written as they arrive, so memory does not depend on how many bands match.
+ * Local view only, the web tier calls it from a {@code StreamingOutput}.
+ */
+@Stateless
+public class BandExporter {
+
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    private static final String CSV_HEADER =
+            "id,name,x,y,creationDate,numberOfParticipants,albumsCount,genre,sales";
+
+    @Inject
+    private BandQueryPlanner planner;
+
+    @Inject
+    private MusicBandRepository repository;
+
+    /**
+     * Compiles the filters and sort up front, so invalid ones are rejected before the response starts.
+     */
+    public BoundQuery prepare(List<String> sortFields, Map<String, String> filters) {
+        return planner.prepare(sortFields, filters);
+    }
+
+    // PostgreSQL only honours the fetch size inside a transaction, which has to outlive a long dump
+    @TransactionTimeout(value = 1, unit = TimeUnit.HOURS)
+    public void write(BoundQuery bound, ExportFormat format, OutputStream output) throws IOException {
+        int fetchSize = Integer.getInteger("band.export.fetch.size", DEFAULT_FETCH_SIZE);
+        try (Stream<MusicBand> bands = bound.isEmpty() ? Stream.empty() : repository.stream(bound, fetchSize)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(bands.iterator(), output);
+            } else {
+                writeXml(bands.iterator(), output);
+            }
+        }
+    }
+
+    private static void writeXml(Iterator<MusicBand> bands, OutputStream output) throws IOException {
+        try (Lease<Marshaller> marshaller = XmlCodec.of(MusicBand.class).marshaller(true)) {
+            XMLStreamWriter writer = XmlCodec.outputFactory().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("bands");
+            while (bands.hasNext()) {
+                marshaller.get().marshal(bands.next(), writer);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new IOException("Failed to write bands as XML", e);
+        }
+    }
+
+    private static void writeCsv(Iterator<MusicBand> bands, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (bands.hasNext()) {
+            MusicBand band = bands.next();
+            writer.write(String.valueOf(band.getId()));
+            writer.write(',');
+            writeCsvText(writer, band.getName());
+            writer.write(',');
+            writeCsvValue(writer, band.getCoordinates() != null ? band.getCoordinates().getX() : null);
+            writer.write(',');
+            writeCsvValue(writer, band.getCoordinates() != null ? band.getCoordinates().getY() : null);
+            writer.write(',');
+            writeCsvValue(writer, band.getCreationDate());
+            writer.write(',');
+            writeCsvValue(writer, band.getNumberOfParticipants());
+            writer.write(',');
+            writeCsvValue(writer, band.getAlbumsCount());
+            writer.write(',');
+            writeCsvValue(writer, band.getGenre());
+            writer.write(',');
+            writeCsvValue(writer, band.getLabel() != null ? band.getLabel().getSales() : null);
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    // RFC 4180: quote fields with separators, quotes or line breaks, double embedded quotes
+    private static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
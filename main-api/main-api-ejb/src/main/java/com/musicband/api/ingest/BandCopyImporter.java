@@ -0,0 +1,306 @@
+package com.musicband.api.ingest;
+
+import com.musicband.api.event.BandsBulkLoadedEvent;
+import com.musicband.api.model.Coordinates;
+import com.musicband.api.model.CopyImportResponse;
+import com.musicband.api.model.CopyReject;
+import com.musicband.api.model.Label;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.codec.Validators;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Stateless;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.validation.Validator;
+import org.jboss.ejb3.annotation.TransactionTimeout;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /bands/import?format=csv}: rows are checked against the {@link MusicBand} constraints,
+ * the valid ones are streamed into a temporary staging table with COPY and merged into
+ * {@code music_bands} by id in one statement. Rows without an id are created, rows with one
+ * replace that band or create it with that id. Runs in one transaction, a failed merge loads nothing.
+ *
+ * <p>The header names the columns, in any order, as written by {@code GET /bands/export?format=csv}:
+ * id, name, x, y, creationDate, numberOfParticipants, albumsCount, genre, sales.
+ */
+@Stateless
+public class BandCopyImporter {
+
+    private static final int MAX_REPORTED_REJECTS = 1000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> COLUMNS = List.of(
+            "id", "name", "x", "y", "creationDate", "numberOfParticipants", "albumsCount", "genre", "sales");
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "y", "numberOfParticipants", "genre");
+
+    // Column names as created by the migrations
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE music_bands_staging ("
+            + "line bigint, id integer, name text, x double precision, y bigint, creationDate date, "
+            + "numberOfParticipants integer, albumsCount integer, genre varchar(50), sales double precision"
+            + ") ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY music_bands_staging "
+            + "(line, id, name, x, y, creationDate, numberOfParticipants, albumsCount, genre, sales) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    /*
+     * Rows without an id get one from the band sequence. Each nextval() reserves a block of
+     * allocationSize ids (value - size .. value], like the pooled optimizer of MusicBand does,
+     * so one call per block numbers allocationSize rows.
+     */
+    private static final String ASSIGN_IDS = "WITH fresh AS ("
+            + "SELECT line, row_number() OVER (ORDER BY line) - 1 AS n FROM music_bands_staging WHERE id IS NULL), "
+            + "blocks AS (SELECT b - 1 AS k, nextval('music_bands_seq') AS hi "
+            + "FROM generate_series(1, (SELECT ceil(count(*) / ?::numeric) FROM fresh)::int) b) "
+            + "UPDATE music_bands_staging s SET id = blocks.hi - ? + 1 + fresh.n % ? "
+            + "FROM fresh JOIN blocks ON blocks.k = fresh.n / ? WHERE s.line = fresh.line";
+
+    // The last row wins when a file repeats an id. creationDate is kept on replace, like an update does.
+    private static final String MERGE = "WITH merged AS ("
+            + "INSERT INTO music_bands (id, name, x, y, creationDate, numberOfParticipants, albumsCount, genre, sales, version) "
+            + "SELECT DISTINCT ON (id) id, name, x, y, COALESCE(creationDate, current_date), "
+            + "numberOfParticipants, albumsCount, genre, sales, 0 "
+            + "FROM music_bands_staging ORDER BY id, line DESC "
+            + "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, x = EXCLUDED.x, y = EXCLUDED.y, "
+            + "numberOfParticipants = EXCLUDED.numberOfParticipants, albumsCount = EXCLUDED.albumsCount, "
+            + "genre = EXCLUDED.genre, sales = EXCLUDED.sales, version = music_bands.version + 1 "
+            + "RETURNING (xmax = 0) AS inserted) "
+            + "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged";
+
+    // Explicit ids may pass the sequence, the next block has to start above all of them
+    private static final String ADVANCE_SEQUENCE = "SELECT setval('music_bands_seq', m.id + ?, false) "
+            + "FROM (SELECT max(id) AS id FROM music_bands) m, music_bands_seq s "
+            + "WHERE m.id + ? > CASE WHEN s.is_called THEN s.last_value + ? ELSE s.last_value END";
+
+    @Resource(lookup = "java:jboss/datasources/MusicBandDS")
+    private DataSource dataSource;
+
+    @Inject
+    private Validator validator;
+
+    @Inject
+    private Event<BandsBulkLoadedEvent> bulkLoaded;
+
+    @TransactionTimeout(value = 1, unit = TimeUnit.HOURS)
+    public CopyImportResponse importCsv(InputStream body) throws IOException, SQLException {
+        CsvReader csv = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> header = readHeader(csv);
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+            }
+
+            CopyImportResponse response = new CopyImportResponse();
+            response.setRejects(new ArrayList<>());
+            long staged = copy(connection, csv, header, response);
+
+            if (staged > 0) {
+                int blockSize = MusicBand.class.getDeclaredField("id")
+                        .getAnnotation(SequenceGenerator.class).allocationSize();
+                try (PreparedStatement statement = connection.prepareStatement(ASSIGN_IDS)) {
+                    for (int i = 1; i <= 4; i++) {
+                        statement.setInt(i, blockSize);
+                    }
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(MERGE);
+                     ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    response.setInsertedCount(result.getLong(1));
+                    response.setUpdatedCount(result.getLong(2));
+                }
+                try (PreparedStatement statement = connection.prepareStatement(ADVANCE_SEQUENCE)) {
+                    for (int i = 1; i <= 3; i++) {
+                        statement.setInt(i, blockSize);
+                    }
+                    statement.execute();
+                }
+                response.setDuplicateCount(staged - response.getInsertedCount() - response.getUpdatedCount());
+                bulkLoaded.fire(new BandsBulkLoadedEvent(staged));
+            }
+            return response;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Integer> readHeader(CsvReader csv) throws IOException {
+        List<String> names = nextRecord(csv);
+        if (names == null) {
+            throw new IllegalArgumentException("CSV body is empty, expected a header row");
+        }
+
+        Map<String, String> known = new HashMap<>();
+        for (String column : COLUMNS) {
+            known.put(column.toLowerCase(Locale.ROOT), column);
+        }
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i) != null ? names.get(i).trim() : "";
+            String column = known.get(name.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown CSV column '" + name + "'. Supported columns: "
+                        + String.join(", ", COLUMNS));
+            }
+            if (header.put(column, i) != null) {
+                throw new IllegalArgumentException("Duplicate CSV column '" + name + "'");
+            }
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!header.containsKey(column)) {
+                throw new IllegalArgumentException("Missing CSV column '" + column + "'");
+            }
+        }
+        return header;
+    }
+
+    private long copy(Connection connection, CsvReader csv, Map<String, Integer> header,
+                      CopyImportResponse response) throws IOException, SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE + 1024);
+            StringBuilder row = new StringBuilder(256);
+            long staged = 0;
+
+            List<String> record;
+            while ((record = nextRecord(csv)) != null) {
+                response.setTotalRows(response.getTotalRows() + 1);
+                long line = csv.getRecordLine();
+                MusicBand band;
+                Integer id;
+                try {
+                    if (record.size() != header.size()) {
+                        throw new IllegalArgumentException("Expected " + header.size() + " fields, got " + record.size());
+                    }
+                    id = parse(record, header, "id", Integer::valueOf);
+                    band = toBand(record, header);
+                    validate(band);
+                } catch (IllegalArgumentException e) {
+                    reject(response, line, e.getMessage());
+                    continue;
+                }
+
+                row.setLength(0);
+                row.append(line).append(',');
+                appendValue(row, id);
+                appendText(row, band.getName());
+                appendValue(row, band.getCoordinates().getX());
+                appendValue(row, band.getCoordinates().getY());
+                appendValue(row, band.getCreationDate());
+                appendValue(row, band.getNumberOfParticipants());
+                appendValue(row, band.getAlbumsCount());
+                appendValue(row, band.getGenre());
+                appendValue(row, band.getLabel() != null ? band.getLabel().getSales() : null);
+                row.setCharAt(row.length() - 1, '\n');
+                buffer.write(row.toString().getBytes(StandardCharsets.UTF_8));
+                staged++;
+
+                if (buffer.size() >= COPY_BUFFER_SIZE) {
+                    copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            if (buffer.size() > 0) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            }
+            copyIn.endCopy();
+            return staged;
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static List<String> nextRecord(CsvReader csv) {
+        try {
+            return csv.next();
+        } catch (IOException e) {
+            // Past a broken quote nothing can be read reliably, the whole import is refused
+            throw new IllegalArgumentException("Malformed CSV: " + e.getMessage());
+        }
+    }
+
+    private static MusicBand toBand(List<String> record, Map<String, Integer> header) {
+        MusicBand band = new MusicBand();
+        band.setName(parse(record, header, "name", value -> value));
+        band.setCoordinates(new Coordinates(
+                parse(record, header, "x", Double::valueOf),
+                parse(record, header, "y", Long::valueOf)));
+        band.setCreationDate(parse(record, header, "creationDate", LocalDate::parse));
+        band.setNumberOfParticipants(parse(record, header, "numberOfParticipants", Integer::valueOf));
+        band.setAlbumsCount(parse(record, header, "albumsCount", Integer::valueOf));
+        band.setGenre(parse(record, header, "genre", value -> MusicGenre.valueOf(value.trim().toUpperCase(Locale.ROOT))));
+        Double sales = parse(record, header, "sales", Double::valueOf);
+        band.setLabel(sales != null ? new Label(sales) : null);
+        return band;
+    }
+
+    private static <T> T parse(List<String> record, Map<String, Integer> header, String column,
+                               java.util.function.Function<String, T> parser) {
+        Integer index = header.get(column);
+        String value = index != null ? record.get(index) : null;
+        if (value == null || (!"name".equals(column) && value.isBlank())) {
+            return null;
+        }
+        try {
+            return parser.apply("name".equals(column) ? value : value.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + ": invalid value '" + value + "'");
+        }
+    }
+
+    private void validate(MusicBand band) {
+        String violations = Validators.describeViolations(validator, band);
+        if (violations != null) {
+            throw new IllegalArgumentException(violations);
+        }
+    }
+
+    private static void reject(CopyImportResponse response, long line, String message) {
+        response.setRejectedCount(response.getRejectedCount() + 1);
+        if (response.getRejects().size() < MAX_REPORTED_REJECTS) {
+            response.getRejects().add(new CopyReject(line, message));
+        }
+    }
+
+    // COPY csv: an unquoted empty field is NULL, text is always quoted so "" stays an empty string
+    private static void appendValue(StringBuilder row, Object value) {
+        if (value != null) {
+            row.append(value);
+        }
+        row.append(',');
+    }
+
+    private static void appendText(StringBuilder row, String value) {
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        row.append(',');
+    }
+}
@@ -0,0 +1,126 @@
+package com.musicband.api.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull reader for RFC 4180 CSV: comma separated, fields optionally in double quotes, quotes
+ * doubled inside them, line breaks allowed in quoted fields. Holds one record at a time.
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int pushedBack = -2;
+
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Line the last record returned by {@link #next()} started on, 1-based.
+     */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * The next record, or {@code null} at the end of input. A quoted empty field is {@code ""},
+     * an unquoted one {@code null}.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        while (true) {
+            boolean quoted = false;
+            field.setLength(0);
+            if (c == '"') {
+                quoted = true;
+                c = readQuoted(field);
+            }
+            while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                if (quoted) {
+                    throw new IOException("Unexpected character after closing quote on line " + line);
+                }
+                field.append((char) c);
+                c = read();
+            }
+            fields.add(quoted || field.length() > 0 ? field.toString() : null);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c >= 0) {
+                skipLineBreak(c);
+            }
+            return fields;
+        }
+    }
+
+    // Returns the character after the closing quote
+    private int readQuoted(StringBuilder field) throws IOException {
+        long startLine = line;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unterminated quoted field starting on line " + startLine);
+            }
+            if (c == '"') {
+                int next = read();
+                if (next != '"') {
+                    return next;
+                }
+                // a doubled quote stands for one
+            } else if (c == '\n') {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    // c is \n or \r, a following \n completes \r\n
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
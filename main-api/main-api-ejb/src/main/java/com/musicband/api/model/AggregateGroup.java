@@ -0,0 +1,25 @@
+package com.musicband.api.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateGroup implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @XmlElement(name = "key")
+    private List<AggregateValue> keys;
+
+    @XmlElement(name = "metric")
+    private List<AggregateValue> metrics;
+}
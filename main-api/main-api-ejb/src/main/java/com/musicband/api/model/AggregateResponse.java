@@ -0,0 +1,26 @@
+package com.musicband.api.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+@XmlRootElement(name = "aggregateResponse")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @XmlElementWrapper(name = "groups")
+    @XmlElement(name = "group")
+    private List<AggregateGroup> groups;
+}
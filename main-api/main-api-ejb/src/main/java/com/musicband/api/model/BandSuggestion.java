@@ -0,0 +1,25 @@
+package com.musicband.api.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BandSuggestion implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @XmlAttribute
+    private Integer id;
+
+    @XmlValue
+    private String name;
+}
@@ -1,5 +1,6 @@
 package com.musicband.api.model;
 
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,4 +25,10 @@ public class BandsResponse implements Serializable {
     private Integer totalPages;
     private Integer currentPage;
     private Integer pageSize;
+    private String nextCursor;
+
+    // Set when the bands only carry these attributes, they must not be served from whole-band caches
+    @XmlTransient
+    @JsonbTransient
+    private List<String> fields;
 }
@@ -0,0 +1,38 @@
+package com.musicband.api.model;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+@XmlRootElement(name = "copyImportResponse")
+@XmlAccessorType(XmlAccessType.FIELD)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CopyImportResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long totalRows;
+
+    private long insertedCount;
+
+    private long updatedCount;
+
+    // Rows replaced by a later row with the same id in the same file
+    private long duplicateCount;
+
+    private long rejectedCount;
+
+    // Only the first rejects are listed, rejectedCount has them all
+    @XmlElementWrapper(name = "rejects")
+    @XmlElement(name = "reject")
+    private List<CopyReject> rejects;
+}
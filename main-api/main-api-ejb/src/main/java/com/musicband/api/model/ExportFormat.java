@@ -0,0 +1,30 @@
+package com.musicband.api.model;
+
+import java.util.Locale;
+
+
+public enum ExportFormat {
+    XML("application/xml"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return XML;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid format value '" + value + "'. Supported values: xml, csv");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.musicband.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Outcome of one imported chunk, both lists are aligned with the submitted bands:
+ * the new id or {@code null}, and {@code null} or the reason the band was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportChunkResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<Integer> ids;
+
+    private List<String> errors;
+}
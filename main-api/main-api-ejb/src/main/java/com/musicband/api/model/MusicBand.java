@@ -1,5 +1,7 @@
 package com.musicband.api.model;
 
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -9,6 +11,7 @@ import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlTransient;
 import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,16 +22,20 @@ import java.time.LocalDate;
 
 
 @Entity
+@Cacheable
 @Table(name = "music_bands")
 @XmlRootElement(name = "musicBand")
 @XmlAccessorType(XmlAccessType.FIELD)
+@JsonbPropertyOrder({"id", "name", "coordinates", "creationDate", "numberOfParticipants", "albumsCount",
+        "genre", "label"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MusicBand implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "music_bands_seq")
+    @SequenceGenerator(name = "music_bands_seq", sequenceName = "music_bands_seq", allocationSize = 50)
     @XmlElement
     private Integer id;
 
@@ -69,6 +76,13 @@ public class MusicBand implements Serializable {
     @XmlElement
     private Label label;
 
+    // Not part of the XML or JSON body, clients see it as the ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    @XmlTransient
+    @JsonbTransient
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         creationDate = LocalDate.now();
@@ -0,0 +1,21 @@
+package com.musicband.api.model;
+
+import java.util.Locale;
+
+
+public enum TotalElementsMode {
+    NONE,
+    EXACT,
+    ESTIMATED;
+
+    public static TotalElementsMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid totalElements value '" + value + "'. Supported values: none, exact, estimated");
+        }
+    }
+}
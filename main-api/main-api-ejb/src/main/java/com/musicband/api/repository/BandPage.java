@@ -0,0 +1,40 @@
+package com.musicband.api.repository;
+
+import com.musicband.api.model.MusicBand;
+
+import java.util.List;
+
+public class BandPage {
+
+    private final List<MusicBand> bands;
+    private final Long totalElements;
+    private final List<String> fields;
+
+    public BandPage(List<MusicBand> bands, Long totalElements) {
+        this(bands, totalElements, null);
+    }
+
+    public BandPage(List<MusicBand> bands, Long totalElements, List<String> fields) {
+        this.bands = bands;
+        this.totalElements = totalElements;
+        this.fields = fields;
+    }
+
+    public List<MusicBand> getBands() {
+        return bands;
+    }
+
+    /**
+     * Exact or estimated size of the filtered set, null when the caller asked for none.
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * Attributes the bands were projected to, null when they are whole entities.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+}
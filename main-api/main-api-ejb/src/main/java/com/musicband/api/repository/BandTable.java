@@ -0,0 +1,172 @@
+package com.musicband.api.repository;
+
+import com.musicband.api.model.Coordinates;
+import com.musicband.api.model.Label;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.api.repository.query.BandQueryPlan;
+import com.musicband.api.repository.query.FilterOperator;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table and column names of {@link MusicBand}, taken from the Hibernate persister, for the
+ * statements that write without loading the entity first, for row estimates and name lookups.
+ */
+@ApplicationScoped
+public class BandTable {
+
+    private static final List<String> COLUMNS_ORDER = List.of(
+            "id", "name", "coordinates.x", "coordinates.y", "creationDate",
+            "numberOfParticipants", "albumsCount", "genre", "label.sales", "version");
+
+    private static final String PREVIOUS = "previous";
+
+    @PersistenceUnit(unitName = "musicBandPU")
+    private EntityManagerFactory entityManagerFactory;
+
+    private String table;
+    private String idColumn;
+    private String versionColumn;
+    private Map<String, String> columns;
+    private String returning;
+
+    @PostConstruct
+    public void init() {
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(MusicBand.class);
+
+        table = persister.getRootTableName();
+        idColumn = persister.getIdentifierColumnNames()[0];
+        versionColumn = persister.getVersionColumnName();
+
+        columns = new LinkedHashMap<>();
+        for (String path : COLUMNS_ORDER) {
+            columns.put(path, persister.getPropertyColumnNames(path)[0]);
+        }
+        List<String> qualified = new ArrayList<>(columns.size());
+        for (String column : columns.values()) {
+            qualified.add(table + "." + column);
+        }
+        returning = String.join(", ", qualified);
+    }
+
+    /**
+     * {@code UPDATE ... SET <changed columns>, version = version + 1 WHERE id = ? [AND version = ?] RETURNING ...}
+     * with the changed values bound first, then the id and the expected version.
+     * The row is read and locked in a CTE first, so the statement also returns the previous
+     * name, participants and genre after the stored columns, see {@link #readUpdate(Object[])}.
+     */
+    public String updateSql(Collection<String> changedPaths, boolean versioned) {
+        List<String> assignments = new ArrayList<>(changedPaths.size() + 1);
+        int position = 1;
+        for (String path : changedPaths) {
+            assignments.add(column(path) + " = ?" + position++);
+        }
+        assignments.add(versionColumn + " = " + table + "." + versionColumn + " + 1");
+
+        return "WITH " + PREVIOUS + " AS (SELECT " + idColumn + ", " + column("name") + ", "
+                + column("numberOfParticipants") + ", " + column("genre")
+                + " FROM " + table + where(position, versioned) + " FOR UPDATE) "
+                + "UPDATE " + table + " SET " + String.join(", ", assignments)
+                + " FROM " + PREVIOUS + " WHERE " + table + "." + idColumn + " = " + PREVIOUS + "." + idColumn
+                + " RETURNING " + returning + ", " + PREVIOUS + "." + column("name")
+                + ", " + PREVIOUS + "." + column("numberOfParticipants") + ", " + PREVIOUS + "." + column("genre");
+    }
+
+    public String deleteSql(boolean versioned) {
+        return "DELETE FROM " + table + where(1, versioned) + " RETURNING " + returning;
+    }
+
+    /**
+     * {@code EXPLAIN (FORMAT JSON) SELECT 1 FROM ... WHERE <conditions>} with the value of each
+     * condition bound at its position, starting at 1.
+     */
+    public String explainSql(List<BandQueryPlan.Condition> conditions) {
+        List<String> predicates = new ArrayList<>(conditions.size());
+        int position = 1;
+        for (BandQueryPlan.Condition condition : conditions) {
+            String path = condition.getField().getPath();
+            String column = columns.get(path);
+            if (column == null) {
+                throw new IllegalArgumentException("Field is not a column: " + path);
+            }
+            predicates.add(condition.toSql(column, position++));
+        }
+        return "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table
+                + (predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates));
+    }
+
+    /**
+     * {@code SELECT id, name ... WHERE lower(name) LIKE ?1 ... LIMIT ?2} in the order of the
+     * {@code lower(name) text_pattern_ops} index of V3, so the index range scan stops after the limit.
+     */
+    public String prefixSql() {
+        String lowerName = "lower(" + column("name") + ")";
+        return "SELECT " + idColumn + ", " + column("name") + " FROM " + table
+                + " WHERE " + lowerName + " LIKE ?1 ESCAPE '" + FilterOperator.LIKE_ESCAPE + "'"
+                + " ORDER BY " + lowerName + " USING ~<~, " + idColumn + " LIMIT ?2";
+    }
+
+    public MusicBand read(Object[] row) {
+        MusicBand band = new MusicBand();
+        band.setId(toInteger(row[0]));
+        band.setName((String) row[1]);
+        band.setCoordinates(new Coordinates(toDouble(row[2]), row[3] != null ? ((Number) row[3]).longValue() : null));
+        band.setCreationDate(toLocalDate(row[4]));
+        band.setNumberOfParticipants(toInteger(row[5]));
+        band.setAlbumsCount(toInteger(row[6]));
+        band.setGenre(row[7] != null ? MusicGenre.valueOf(row[7].toString()) : null);
+        // Hibernate reads an embeddable with only null columns as null
+        band.setLabel(row[8] != null ? new Label(toDouble(row[8])) : null);
+        band.setVersion(row[9] != null ? ((Number) row[9]).longValue() : null);
+        return band;
+    }
+
+    public BandUpdate readUpdate(Object[] row) {
+        return new BandUpdate(read(row), (String) row[10], toInteger(row[11]),
+                row[12] != null ? MusicGenre.valueOf(row[12].toString()) : null);
+    }
+
+    private String column(String path) {
+        String column = columns.get(path);
+        if (column == null) {
+            throw new IllegalArgumentException("Field is not writable: " + path);
+        }
+        return column;
+    }
+
+    private String where(int position, boolean versioned) {
+        String where = " WHERE " + idColumn + " = ?" + position;
+        return versioned ? where + " AND " + versionColumn + " = ?" + (position + 1) : where;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value != null ? ((Number) value).intValue() : null;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
@@ -0,0 +1,38 @@
+package com.musicband.api.repository;
+
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+
+/**
+ * Band row as stored by an update, with the aggregated and indexed attributes it had before.
+ */
+public class BandUpdate {
+
+    private final MusicBand band;
+    private final String previousName;
+    private final Integer previousParticipants;
+    private final MusicGenre previousGenre;
+
+    public BandUpdate(MusicBand band, String previousName, Integer previousParticipants, MusicGenre previousGenre) {
+        this.band = band;
+        this.previousName = previousName;
+        this.previousParticipants = previousParticipants;
+        this.previousGenre = previousGenre;
+    }
+
+    public MusicBand getBand() {
+        return band;
+    }
+
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    public Integer getPreviousParticipants() {
+        return previousParticipants;
+    }
+
+    public MusicGenre getPreviousGenre() {
+        return previousGenre;
+    }
+}
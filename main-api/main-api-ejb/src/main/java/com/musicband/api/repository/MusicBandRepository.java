@@ -1,394 +1,374 @@
 package com.musicband.api.repository;
 
+import com.musicband.api.model.AggregateGroup;
 import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.TotalElementsMode;
+import com.musicband.api.repository.query.BandAggregation;
+import com.musicband.api.repository.query.BandProjection;
+import com.musicband.api.repository.query.BandQueryPlan;
+import com.musicband.api.repository.query.BandQueryPlanner;
+import com.musicband.api.repository.query.BoundQuery;
+import com.musicband.api.repository.query.FilterOperator;
+import com.musicband.api.repository.query.PageCursor;
 import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
 import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Stateless
 public class MusicBandRepository {
 
+    /*
+     * The second-level cache is configured for the unit but only read from when enabled here.
+     * Inserts go through persist, updates and deletes are plain SQL and are evicted by
+     * OrmCacheEviction, so the regions stay consistent whether or not reads use them.
+     */
+    private static final boolean CACHE_ENABLED = Boolean.getBoolean("musicband.cache.enabled");
+    private static final Map<String, Object> CACHE_HINTS = cacheHints();
+
+    // Same as hibernate.jdbc.batch_size, one flush sends one batch per statement
+    private static final int FLUSH_INTERVAL = 50;
+
     @PersistenceContext(unitName = "musicBandPU")
     private EntityManager entityManager;
 
+    @Inject
+    private BandQueryPlanner planner;
+
+    @Inject
+    private BandTable table;
+
     public MusicBand create(MusicBand band) {
         entityManager.persist(band);
         entityManager.flush();
         return band;
     }
 
+    /**
+     * Inserts all bands in JDBC batches, clearing the persistence context after each flush
+     * so a large chunk does not keep every entity managed. Ids come from the pooled sequence.
+     */
+    public List<MusicBand> createAll(List<MusicBand> bands) {
+        for (int i = 0; i < bands.size(); i++) {
+            entityManager.persist(bands.get(i));
+            if ((i + 1) % FLUSH_INTERVAL == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return bands;
+    }
+
     public Optional<MusicBand> findById(Integer id) {
-        MusicBand band = entityManager.find(MusicBand.class, id);
+        MusicBand band = entityManager.find(MusicBand.class, id, CACHE_HINTS);
         return Optional.ofNullable(band);
     }
 
-    public MusicBand update(MusicBand band) {
-        return entityManager.merge(band);
+    /**
+     * Writes the changed attributes in one statement and returns the row as stored,
+     * or nothing when no row has this id (and version, if one is expected).
+     *
+     * @param changes new values keyed by attribute path, e.g. {@code coordinates.x}
+     */
+    public Optional<BandUpdate> update(Integer id, Map<String, Object> changes, Long expectedVersion) {
+        NativeQuery<?> query = entityManager
+                .createNativeQuery(table.updateSql(changes.keySet(), expectedVersion != null))
+                .unwrap(NativeQuery.class);
+
+        int position = 1;
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            bind(query, position++, change.getValue(), planner.getCompiler().field(change.getKey()).getJavaType());
+        }
+        query.setParameter(position++, id);
+        if (expectedVersion != null) {
+            query.setParameter(position, expectedVersion);
+        }
+
+        return query.getResultList().stream()
+                .map(row -> table.readUpdate((Object[]) row))
+                .findFirst();
     }
 
-    public boolean delete(Integer id) {
-        MusicBand band = entityManager.find(MusicBand.class, id);
-        if (band != null) {
-            entityManager.remove(band);
-            return true;
+    /**
+     * Returns the deleted row, or nothing when no row has this id (and version, if one is expected).
+     */
+    public Optional<MusicBand> delete(Integer id, Long expectedVersion) {
+        NativeQuery<?> query = entityManager
+                .createNativeQuery(table.deleteSql(expectedVersion != null))
+                .unwrap(NativeQuery.class);
+        query.setParameter(1, id);
+        if (expectedVersion != null) {
+            query.setParameter(2, expectedVersion);
         }
-        return false;
+        return query.getResultList().stream()
+                .map(row -> table.read((Object[]) row))
+                .findFirst();
     }
 
-    public List<MusicBand> findAll(int page, int size, List<String> sortFields, Map<String, String> filters) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<MusicBand> cq = cb.createQuery(MusicBand.class);
-        Root<MusicBand> root = cq.from(MusicBand.class);
+    public Long findVersion(Integer id) {
+        return entityManager.createQuery("select b.version from MusicBand b where b.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
-        if (!predicates.isEmpty()) {
-            cq.where(cb.and(predicates.toArray(new Predicate[0])));
+    public BandPage findAll(int page, int size, List<String> sortFields, Map<String, String> filters,
+                            List<String> fields, TotalElementsMode totalMode) {
+        BoundQuery bound = planner.prepare(sortFields, filters, fields);
+        if (bound.isEmpty()) {
+            return new BandPage(new ArrayList<>(), totalMode == TotalElementsMode.NONE ? null : 0L, fieldsOf(bound));
         }
 
-        List<Order> orders = buildOrders(cb, root, sortFields);
-        if (!orders.isEmpty()) {
-            cq.orderBy(orders);
+        String jpql = bound.getPlan().getSelectJpql();
+        if (totalMode == TotalElementsMode.EXACT) {
+            TypedQuery<Object[]> query = cached(bound.bind(
+                    entityManager.createQuery(bound.getPlan().withTotal(jpql), Object[].class)));
+            query.setFirstResult(page * size);
+            query.setMaxResults(size);
+            return toPage(query.getResultList(), bound, page > 0);
         }
 
-        TypedQuery<MusicBand> query = entityManager.createQuery(cq);
-        query.setFirstResult(page * size);
-        query.setMaxResults(size);
+        BandProjection projection = bound.getPlan().getProjection();
+        List<MusicBand> bands;
+        if (projection != null) {
+            TypedQuery<Object[]> query = cached(bound.bind(entityManager.createQuery(jpql, Object[].class)));
+            query.setFirstResult(page * size);
+            query.setMaxResults(size);
+            bands = read(query.getResultList(), projection);
+        } else {
+            TypedQuery<MusicBand> query = cached(bound.bind(entityManager.createQuery(jpql, MusicBand.class)));
+            query.setFirstResult(page * size);
+            query.setMaxResults(size);
+            bands = query.getResultList();
+        }
 
-        return query.getResultList();
+        return new BandPage(bands, totalMode == TotalElementsMode.ESTIMATED ? estimateCount(bound) : null,
+                fieldsOf(bound));
     }
 
-    public long count(Map<String, String> filters) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
-        Root<MusicBand> root = cq.from(MusicBand.class);
+    public BandPage findAfter(PageCursor cursor, int limit, List<String> sortFields, Map<String, String> filters,
+                              List<String> fields, TotalElementsMode totalMode) {
+        BoundQuery bound = planner.prepare(sortFields, filters, fields);
+        if (bound.isEmpty()) {
+            return new BandPage(new ArrayList<>(), totalMode == TotalElementsMode.NONE ? null : 0L, fieldsOf(bound));
+        }
 
-        cq.select(cb.count(root));
+        BoundQuery.Keyset keyset = bound.keyset(cursor);
+        if (totalMode == TotalElementsMode.EXACT) {
+            TypedQuery<Object[]> query = cached(keyset.bind(
+                    entityManager.createQuery(bound.getPlan().withTotal(keyset.getJpql()), Object[].class)));
+            query.setMaxResults(limit);
+            return toPage(query.getResultList(), bound, cursor != null);
+        }
 
-        List<Predicate> predicates = buildPredicates(cb, root, filters);
-        if (!predicates.isEmpty()) {
-            cq.where(cb.and(predicates.toArray(new Predicate[0])));
+        BandProjection projection = bound.getPlan().getProjection();
+        List<MusicBand> bands;
+        if (projection != null) {
+            TypedQuery<Object[]> query = cached(keyset.bind(entityManager.createQuery(keyset.getJpql(), Object[].class)));
+            query.setMaxResults(limit);
+            bands = read(query.getResultList(), projection);
+        } else {
+            TypedQuery<MusicBand> query = cached(
+                    keyset.bind(entityManager.createQuery(keyset.getJpql(), MusicBand.class)));
+            query.setMaxResults(limit);
+            bands = query.getResultList();
         }
 
-        return entityManager.createQuery(cq).getSingleResult();
+        return new BandPage(bands, totalMode == TotalElementsMode.ESTIMATED ? estimateCount(bound) : null,
+                fieldsOf(bound));
     }
 
-    public Double getAverageParticipants() {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Double> cq = cb.createQuery(Double.class);
-        Root<MusicBand> root = cq.from(MusicBand.class);
-
-        cq.select(cb.avg(root.get("numberOfParticipants")));
-
-        Double result = entityManager.createQuery(cq).getSingleResult();
-        return result != null ? result : 0.0;
+    /**
+     * All matching bands in plan order through a forward-only cursor, read-only and bypassing
+     * the second-level cache. The persistence context is cleared every {@code fetchSize} rows,
+     * so a band is only valid until the next one is read. The caller closes the stream.
+     */
+    public Stream<MusicBand> stream(BoundQuery bound, int fetchSize) {
+        TypedQuery<MusicBand> query = bound.bind(
+                entityManager.createQuery(bound.getPlan().getSelectJpql(), MusicBand.class));
+        query.setHint("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+        query.setHint("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        int[] read = {0};
+        return query.getResultStream().peek(band -> {
+            // detaching each row still leaves its load state behind until the scroll ends
+            if (++read[0] % fetchSize == 0) {
+                entityManager.clear();
+            }
+        });
     }
 
-    private List<Order> buildOrders(CriteriaBuilder cb, Root<MusicBand> root, List<String> sortFields) {
-        List<Order> orders = new ArrayList<>();
-
-        if (sortFields == null || sortFields.isEmpty()) {
-            return orders;
-        }
-
-        for (String sortField : sortFields) {
-            String[] parts = sortField.split(",");
-            if (parts.length < 1) {
-                continue;
-            }
+    public PageCursor cursorAfter(MusicBand lastBand, List<String> sortFields) {
+        return planner.prepare(sortFields, null).getPlan().cursorAfter(lastBand);
+    }
 
-            String field = parts[0].trim();
-            String direction = parts.length > 1 ? parts[1].trim().toLowerCase() : "asc";
-
-            try {
-                Path<?> path = getPath(root, field);
-                if ("desc".equals(direction)) {
-                    orders.add(cb.desc(path));
-                } else {
-                    orders.add(cb.asc(path));
-                }
-            } catch (Exception e) {
-                System.err.println("Error creating order for field: " + field + ", error: " + e.getMessage());
-            }
+    public long count(Map<String, String> filters) {
+        BoundQuery bound = planner.prepare(null, filters);
+        if (bound.isEmpty()) {
+            return 0;
         }
 
-        return orders;
+        return count(bound);
     }
 
-    private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<MusicBand> root, Map<String, String> filters) {
-        List<Predicate> predicates = new ArrayList<>();
-
-        if (filters == null || filters.isEmpty()) {
-            return predicates;
+    public List<AggregateGroup> aggregate(List<String> groupBy, List<String> metrics, Map<String, String> filters) {
+        BandAggregation aggregation = planner.prepareAggregation(groupBy, metrics);
+        BoundQuery bound = planner.prepare(null, filters);
+        if (bound.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        for (Map.Entry<String, String> entry : filters.entrySet()) {
-            String filterExpression = entry.getValue();
-
-            String[] parts = filterExpression.split(":", 3);
-            if (parts.length != 3) {
-                System.err.println("Invalid filter format: " + filterExpression + " (expected field:operator:value)");
-                continue;
-            }
+        List<Object[]> rows = cached(bound.bind(
+                entityManager.createQuery(aggregation.toJpql(bound.getPlan()), Object[].class))).getResultList();
+        return aggregation.toGroups(rows);
+    }
 
-            String field = parts[0].trim();
-            String operator = parts[1].trim().toLowerCase();
-            String value = parts[2].trim();
-
-            try {
-                Predicate predicate = createPredicate(cb, root, field, operator, value);
-                if (predicate != null) {
-                    predicates.add(predicate);
-                }
-            } catch (IllegalArgumentException e) {
-                System.err.println("Filter validation error: " + e.getMessage() + " (filter: " + filterExpression + ")");
-                predicates.add(cb.disjunction());
-                break;
-            } catch (Exception e) {
-                System.err.println("Error creating predicate for filter: " + filterExpression + ", error: " + e.getMessage());
-                predicates.add(cb.disjunction());
-                break;
-            }
-        }
+    /**
+     * Band count and participant sum per genre, as {@code [genre, count, sum]} rows.
+     */
+    public List<Object[]> participantTotalsByGenre() {
+        return entityManager.createQuery(
+                        "select b.genre, count(b), sum(b.numberOfParticipants) from MusicBand b group by b.genre",
+                        Object[].class)
+                .getResultList();
+    }
 
-        return predicates;
+    /**
+     * Up to {@code limit} bands whose name starts with {@code prefix} ignoring case, as {@code [id, name]}
+     * rows ordered by lower-case name and id.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findNamesByPrefix(String prefix, int limit) {
+        return entityManager.createNativeQuery(table.prefixSql())
+                .setParameter(1, FilterOperator.escapeLike(prefix.toLowerCase()) + "%")
+                .setParameter(2, limit)
+                .getResultList();
     }
 
-    private Predicate createPredicate(CriteriaBuilder cb, Root<MusicBand> root,
-                                      String field, String operator, String value) {
-
-        Path<?> path = getPath(root, field);
-        Class<?> fieldType = path.getJavaType();
-
-        validateFilterValue(field, operator, value, fieldType);
-
-        switch (operator) {
-            case "eq":
-                if (fieldType.isEnum()) {
-                    Enum<?> enumValue = parseEnumValue(fieldType, value);
-                    return cb.equal(path, enumValue);
-                } else if (isNumericType(fieldType)) {
-                    Number numValue = parseNumericValue(fieldType, value);
-                    return cb.equal(path, numValue);
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.equal(path, dateValue);
-                } else {
-                    return cb.equal(path, value);
-                }
-
-            case "ne":
-                if (fieldType.isEnum()) {
-                    Enum<?> enumValue = parseEnumValue(fieldType, value);
-                    return cb.notEqual(path, enumValue);
-                } else if (isNumericType(fieldType)) {
-                    Number numValue = parseNumericValue(fieldType, value);
-                    return cb.notEqual(path, numValue);
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.notEqual(path, dateValue);
-                } else {
-                    return cb.notEqual(path, value);
-                }
-
-            case "gt":
-                if (isNumericType(fieldType)) {
-                    return createNumericComparison(cb, path, value, fieldType, "gt");
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.greaterThan(path.as(LocalDate.class), dateValue);
-                } else {
-                    throw new IllegalArgumentException("Operator 'gt' only works with numeric fields and dates. Field '" + field + "' is " + fieldType.getSimpleName());
-                }
-
-            case "gte":
-                if (isNumericType(fieldType)) {
-                    return createNumericComparison(cb, path, value, fieldType, "gte");
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.greaterThanOrEqualTo(path.as(LocalDate.class), dateValue);
-                } else {
-                    throw new IllegalArgumentException("Operator 'gte' only works with numeric fields and dates. Field '" + field + "' is " + fieldType.getSimpleName());
-                }
-
-            case "lt":
-                if (isNumericType(fieldType)) {
-                    return createNumericComparison(cb, path, value, fieldType, "lt");
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.lessThan(path.as(LocalDate.class), dateValue);
-                } else {
-                    throw new IllegalArgumentException("Operator 'lt' only works with numeric fields and dates. Field '" + field + "' is " + fieldType.getSimpleName());
-                }
-
-            case "lte":
-                if (isNumericType(fieldType)) {
-                    return createNumericComparison(cb, path, value, fieldType, "lte");
-                } else if (fieldType == LocalDate.class) {
-                    LocalDate dateValue = parseDate(value);
-                    return cb.lessThanOrEqualTo(path.as(LocalDate.class), dateValue);
-                } else {
-                    throw new IllegalArgumentException("Operator 'lte' only works with numeric fields and dates. Field '" + field + "' is " + fieldType.getSimpleName());
-                }
-
-            case "contains":
-                if (fieldType == String.class) {
-                    return cb.like(cb.lower(path.as(String.class)), "%" + value.toLowerCase() + "%");
-                } else {
-                    throw new IllegalArgumentException("Operator 'contains' only works with string fields. Field '" + field + "' is " + fieldType.getSimpleName());
-                }
-
-            default:
-                throw new IllegalArgumentException("Unknown operator: " + operator + ". Supported operators: eq, ne, gt, gte, lt, lte, contains");
-        }
+    private long count(BoundQuery bound) {
+        return cached(bound.bind(entityManager.createQuery(bound.getPlan().getCountJpql(), Long.class)))
+                .getSingleResult();
     }
 
-    private Predicate createNumericComparison(CriteriaBuilder cb, Path<?> path, String value, Class<?> fieldType, String operator) {
-        if (fieldType == Integer.class || fieldType == int.class) {
-            Integer intValue = Integer.parseInt(value);
-            switch (operator) {
-                case "gt": return cb.gt(path.as(Integer.class), intValue);
-                case "gte": return cb.ge(path.as(Integer.class), intValue);
-                case "lt": return cb.lt(path.as(Integer.class), intValue);
-                case "lte": return cb.le(path.as(Integer.class), intValue);
-            }
-        } else if (fieldType == Long.class || fieldType == long.class) {
-            Long longValue = Long.parseLong(value);
-            switch (operator) {
-                case "gt": return cb.gt(path.as(Long.class), longValue);
-                case "gte": return cb.ge(path.as(Long.class), longValue);
-                case "lt": return cb.lt(path.as(Long.class), longValue);
-                case "lte": return cb.le(path.as(Long.class), longValue);
-            }
-        } else if (fieldType == Double.class || fieldType == double.class) {
-            Double doubleValue = Double.parseDouble(value);
-            switch (operator) {
-                case "gt": return cb.gt(path.as(Double.class), doubleValue);
-                case "gte": return cb.ge(path.as(Double.class), doubleValue);
-                case "lt": return cb.lt(path.as(Double.class), doubleValue);
-                case "lte": return cb.le(path.as(Double.class), doubleValue);
-            }
-        } else if (fieldType == Float.class || fieldType == float.class) {
-            Float floatValue = Float.parseFloat(value);
-            switch (operator) {
-                case "gt": return cb.gt(path.as(Float.class), floatValue);
-                case "gte": return cb.ge(path.as(Float.class), floatValue);
-                case "lt": return cb.lt(path.as(Float.class), floatValue);
-                case "lte": return cb.le(path.as(Float.class), floatValue);
-            }
+    private static <P> void bind(NativeQuery<?> query, int position, Object value, Class<P> javaType) {
+        if (javaType.isEnum()) {
+            query.setParameter(position, value != null ? ((Enum<?>) value).name() : null, String.class);
+        } else {
+            query.setParameter(position, javaType.cast(value), javaType);
         }
-        throw new IllegalArgumentException("Unsupported numeric type: " + fieldType.getSimpleName());
     }
 
-    private void validateFilterValue(String field, String operator, String value, Class<?> fieldType) {
-        if (value == null || value.trim().isEmpty()) {
-            throw new IllegalArgumentException("Filter value cannot be empty for field '" + field + "'");
-        }
+    private <T> TypedQuery<T> cached(TypedQuery<T> query) {
+        CACHE_HINTS.forEach(query::setHint);
+        query.setHint(HibernateHints.HINT_CACHEABLE, CACHE_ENABLED);
+        return query;
+    }
 
-        if (fieldType.isEnum()) {
-            try {
-                parseEnumValue(fieldType, value);
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid value '" + value + "' for enum field '" + field + "'. " + e.getMessage());
-            }
-        }
+    private static Map<String, Object> cacheHints() {
+        Map<String, Object> hints = new HashMap<>();
+        hints.put("jakarta.persistence.cache.retrieveMode",
+                CACHE_ENABLED ? CacheRetrieveMode.USE : CacheRetrieveMode.BYPASS);
+        hints.put("jakarta.persistence.cache.storeMode",
+                CACHE_ENABLED ? CacheStoreMode.USE : CacheStoreMode.BYPASS);
+        return Collections.unmodifiableMap(hints);
+    }
 
-        if (isNumericType(fieldType)) {
-            try {
-                if (fieldType == Integer.class || fieldType == int.class ||
-                        fieldType == Long.class || fieldType == long.class) {
-                    if (value.contains(".")) {
-                        throw new NumberFormatException("Integer field cannot accept decimal values");
-                    }
-                }
-                parseNumericValue(fieldType, value);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid numeric value '" + value + "' for field '" + field + "'. Expected " + fieldType.getSimpleName() + " (whole number for Integer fields)");
-            }
+    /*
+     * Rows are the entity or the projected columns, followed by the total.
+     */
+    private BandPage toPage(List<Object[]> rows, BoundQuery bound, boolean skippedRows) {
+        BandProjection projection = bound.getPlan().getProjection();
+        int totalColumn = projection != null ? projection.getColumnCount() : 1;
+        List<MusicBand> bands = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            bands.add(projection != null ? (MusicBand) projection.read(row) : (MusicBand) row[0]);
         }
 
-        if (fieldType == LocalDate.class) {
-            try {
-                parseDate(value);
-            } catch (DateTimeParseException e) {
-                throw new IllegalArgumentException("Invalid date value '" + value + "' for field '" + field + "'. Expected format: YYYY-MM-DD");
-            }
+        if (!rows.isEmpty()) {
+            return new BandPage(bands, ((Number) rows.get(0)[totalColumn]).longValue(), fieldsOf(bound));
         }
+        // Past the last row nothing carries the total, ask for it separately.
+        return new BandPage(bands, skippedRows ? count(bound) : 0L, fieldsOf(bound));
     }
 
-    private Path<?> getPath(Root<MusicBand> root, String field) {
-        if (field.contains(".")) {
-            String[] parts = field.split("\\.");
-            Path<?> path = root;
-            for (String part : parts) {
-                path = path.get(part);
-            }
-            return path;
-        } else {
-            return root.get(field);
+    private static List<MusicBand> read(List<Object[]> rows, BandProjection projection) {
+        List<MusicBand> bands = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            bands.add((MusicBand) projection.read(row));
         }
+        return bands;
     }
 
-    private boolean isNumericType(Class<?> type) {
-        return type == Integer.class || type == int.class ||
-                type == Long.class || type == long.class ||
-                type == Double.class || type == double.class ||
-                type == Float.class || type == float.class;
+    private static List<String> fieldsOf(BoundQuery bound) {
+        List<String> fields = bound.getPlan().getShape().getFields();
+        return fields.isEmpty() ? null : fields;
     }
 
-    private Number parseNumericValue(Class<?> type, String value) {
-        try {
-            if (type == Integer.class || type == int.class) {
-                return Integer.parseInt(value);
-            } else if (type == Long.class || type == long.class) {
-                return Long.parseLong(value);
-            } else if (type == Double.class || type == double.class) {
-                return Double.parseDouble(value);
-            } else if (type == Float.class || type == float.class) {
-                return Float.parseFloat(value);
-            }
-        } catch (NumberFormatException e) {
-            throw new NumberFormatException("Cannot parse '" + value + "' as " + type.getSimpleName());
+    /*
+     * Unfiltered totals come from the planner statistics in pg_class, which is a catalog
+     * lookup instead of a scan. Filtered totals are the row estimate of the planner for the
+     * filtered select, so an estimate never scans either. Never-analyzed tables fall back to an exact count.
+     */
+    private long estimateCount(BoundQuery bound) {
+        if (!bound.getPlan().getConditions().isEmpty()) {
+            return explainRows(bound);
         }
-        throw new IllegalArgumentException("Unsupported numeric type: " + type.getSimpleName());
-    }
 
-    @SuppressWarnings("unchecked")
-    private Enum<?> parseEnumValue(Class<?> enumType, String value) {
-        try {
-            return Enum.valueOf((Class<Enum>) enumType, value);
-        } catch (IllegalArgumentException e) {
-            for (Object enumConstant : enumType.getEnumConstants()) {
-                if (((Enum<?>) enumConstant).name().equalsIgnoreCase(value)) {
-                    return (Enum<?>) enumConstant;
-                }
-            }
+        Object estimate = entityManager.createNativeQuery(
+                        "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass(:tableName)")
+                .setParameter("tableName", MusicBand.class.getAnnotation(Table.class).name())
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
 
-            StringBuilder availableValues = new StringBuilder();
-            for (Object enumConstant : enumType.getEnumConstants()) {
-                if (availableValues.length() > 0) {
-                    availableValues.append(", ");
-                }
-                availableValues.append(((Enum<?>) enumConstant).name());
-            }
+        long rows = estimate != null ? ((Number) estimate).longValue() : -1;
+        return rows >= 0 ? rows : count(bound);
+    }
 
-            throw new IllegalArgumentException("Available values: " + availableValues.toString());
+    /*
+     * "Plan Rows" of the top plan node. The filter values are bound, so the planner applies the
+     * column statistics (most common values, histograms) to the actual values.
+     */
+    private long explainRows(BoundQuery bound) {
+        List<BandQueryPlan.Condition> conditions = bound.getPlan().getConditions();
+        NativeQuery<?> query = entityManager
+                .createNativeQuery(table.explainSql(conditions))
+                .unwrap(NativeQuery.class)
+                .addScalar("QUERY PLAN", StandardBasicTypes.STRING);
+        int position = 1;
+        for (BandQueryPlan.Condition condition : conditions) {
+            bind(query, position++, bound.getParameters().get(condition.getParameter()),
+                    condition.getField().getJavaType());
         }
-    }
 
-    private LocalDate parseDate(String value) {
-        try {
-            return LocalDate.parse(value);
-        } catch (DateTimeParseException e) {
-            throw new DateTimeParseException("Invalid date format: " + value + ". Expected format: YYYY-MM-DD", value, 0);
+        Object plan = query.getResultStream().findFirst().orElse(null);
+        if (plan == null) {
+            return count(bound);
+        }
+        try (JsonReader reader = Json.createReader(new StringReader(plan.toString()))) {
+            return reader.readArray().getJsonObject(0).getJsonObject("Plan").getJsonNumber("Plan Rows").longValue();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.musicband.api.repository.query;
+
+import com.musicband.api.model.AggregateGroup;
+import com.musicband.api.model.AggregateValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled group-by and metric list of {@code GET /bands/aggregate}. The filter clause of a
+ * {@link BandQueryPlan} is appended per request, so both share the filter grammar and parameters.
+ */
+public final class BandAggregation {
+
+    private final String entityName;
+    private final List<GroupKey> groupKeys;
+    private final List<Metric> metrics;
+    private final String select;
+    private final String groupBy;
+
+    BandAggregation(String entityName, List<GroupKey> groupKeys, List<Metric> metrics) {
+        this.entityName = entityName;
+        this.groupKeys = List.copyOf(groupKeys);
+        this.metrics = List.copyOf(metrics);
+
+        List<String> expressions = new ArrayList<>();
+        for (GroupKey key : groupKeys) {
+            expressions.addAll(key.expressions());
+        }
+        this.groupBy = String.join(", ", expressions);
+
+        List<String> selections = new ArrayList<>(expressions);
+        for (Metric metric : metrics) {
+            selections.add(metric.expression());
+        }
+        this.select = "select " + String.join(", ", selections);
+    }
+
+    public String toJpql(BandQueryPlan filter) {
+        String from = " from " + entityName + " " + BandQueryCompiler.ALIAS;
+        String where = filter.getFilterClause().isEmpty() ? "" : " where " + filter.getFilterClause();
+        if (groupBy.isEmpty()) {
+            return select + from + where;
+        }
+        return select + from + where + " group by " + groupBy + " order by " + groupBy;
+    }
+
+    public List<AggregateGroup> toGroups(List<Object[]> rows) {
+        List<AggregateGroup> groups = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int column = 0;
+            List<AggregateValue> keys = new ArrayList<>(groupKeys.size());
+            for (GroupKey key : groupKeys) {
+                keys.add(new AggregateValue(key.getName(), key.format(row, column)));
+                column += key.expressions().size();
+            }
+
+            List<AggregateValue> values = new ArrayList<>(metrics.size());
+            for (Metric metric : metrics) {
+                values.add(new AggregateValue(metric.getName(), FieldValues.format(row[column++])));
+            }
+            groups.add(new AggregateGroup(keys, values));
+        }
+        return groups;
+    }
+
+    public enum Bucket {
+        VALUE, MONTH, QUARTER, YEAR, RANGE
+    }
+
+    public enum Function {
+        COUNT, SUM, AVG, MIN, MAX
+    }
+
+    static final class GroupKey {
+        private final String name;
+        private final FieldRef field;
+        private final Bucket bucket;
+        private final BigDecimal width;
+
+        GroupKey(String name, FieldRef field, Bucket bucket, BigDecimal width) {
+            this.name = name;
+            this.field = field;
+            this.bucket = bucket;
+            this.width = width;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        List<String> expressions() {
+            String path = field.getJpql();
+            switch (bucket) {
+                case MONTH:
+                    return List.of("year(" + path + ")", "month(" + path + ")");
+                case QUARTER:
+                    return List.of("year(" + path + ")", "extract(quarter from " + path + ")");
+                case YEAR:
+                    return List.of("year(" + path + ")");
+                case RANGE:
+                    return List.of("floor(" + path + " / " + width.toPlainString() + ")");
+                default:
+                    return List.of(path);
+            }
+        }
+
+        /*
+         * Date buckets come back as their parts, ranges as the bucket index,
+         * and are rendered as 2024-03, 2024-Q1, 2024 or [10, 15).
+         */
+        String format(Object[] row, int column) {
+            Object value = row[column];
+            if (value == null) {
+                return null;
+            }
+            switch (bucket) {
+                case MONTH:
+                    return value + "-" + String.format("%02d", ((Number) row[column + 1]).intValue());
+                case QUARTER:
+                    return value + "-Q" + row[column + 1];
+                case RANGE:
+                    BigDecimal lower = width.multiply(new BigDecimal(((Number) value).longValue()));
+                    return "[" + lower.toPlainString() + ", " + lower.add(width).toPlainString() + ")";
+                default:
+                    return FieldValues.format(value);
+            }
+        }
+    }
+
+    static final class Metric {
+        private final String name;
+        private final Function function;
+        private final FieldRef field;
+
+        Metric(String name, Function function, FieldRef field) {
+            this.name = name;
+            this.function = function;
+            this.field = field;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String expression() {
+            String argument = field != null ? field.getJpql() : BandQueryCompiler.ALIAS;
+            return function.name().toLowerCase() + "(" + argument + ")";
+        }
+    }
+}
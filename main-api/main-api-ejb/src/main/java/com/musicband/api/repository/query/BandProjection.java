@@ -0,0 +1,66 @@
+package com.musicband.api.repository.query;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Select list of a {@code fields=} query. The requested attributes are selected as scalars together
+ * with the id, the version and the keyset keys, so page tags and cursors work as for whole entities,
+ * and each row is copied into a new entity instance the persistence context never sees.
+ */
+public final class BandProjection {
+
+    private final List<String> fields;
+    private final List<FieldRef> columns;
+    private final String selectList;
+    private final Constructor<?> constructor;
+
+    BandProjection(Class<?> entityType, List<String> fields, List<FieldRef> columns) {
+        this.fields = List.copyOf(fields);
+        this.columns = List.copyOf(columns);
+
+        List<String> paths = new ArrayList<>(columns.size());
+        for (FieldRef column : columns) {
+            paths.add(column.getJpql());
+        }
+        this.selectList = String.join(", ", paths);
+
+        try {
+            this.constructor = entityType.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(entityType.getName() + " has no default constructor", e);
+        }
+    }
+
+    /**
+     * Requested attributes as given, in name order.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    String getSelectList() {
+        return selectList;
+    }
+
+    /**
+     * An entity with the selected attributes of {@code row} set and all others null.
+     */
+    public Object read(Object[] row) {
+        Object entity;
+        try {
+            entity = constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + constructor.getDeclaringClass().getName(), e);
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).write(entity, row[i]);
+        }
+        return entity;
+    }
+}
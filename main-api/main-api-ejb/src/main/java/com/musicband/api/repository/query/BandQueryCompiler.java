@@ -0,0 +1,258 @@
+package com.musicband.api.repository.query;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles a {@link QueryShape} into a {@link BandQueryPlan}. Attribute paths are resolved
+ * against the metamodel once and memoized.
+ */
+public final class BandQueryCompiler {
+
+    static final String ALIAS = "b";
+    private static final String ID_FIELD = "id";
+    private static final String VERSION_FIELD = "version";
+
+    private final Metamodel metamodel;
+    private final Class<?> entityType;
+    private final String entityName;
+    private final Map<String, FieldRef> fields = new ConcurrentHashMap<>();
+
+    public BandQueryCompiler(Metamodel metamodel, Class<?> entityType) {
+        this.metamodel = metamodel;
+        this.entityType = entityType;
+        this.entityName = metamodel.entity(entityType).getName();
+    }
+
+    public BandQueryPlan compile(QueryShape shape) {
+        List<BandQueryPlan.SortKey> sortKeys = compileSortKeys(shape.getSorts());
+
+        List<BandQueryPlan.Condition> conditions = new ArrayList<>();
+        for (String filter : shape.getFilters()) {
+            int separator = filter.indexOf(':');
+            String field = filter.substring(0, separator);
+            String operatorCode = filter.substring(separator + 1);
+            try {
+                FieldRef fieldRef = field(field);
+                FilterOperator operator = FilterOperator.fromCode(operatorCode);
+                checkOperator(field, operator, fieldRef.getJavaType());
+                conditions.add(new BandQueryPlan.Condition(fieldRef, operator, "p" + conditions.size()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Filter validation error: " + e.getMessage() + " (filter: " + filter + ")");
+                return BandQueryPlan.invalid(shape, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Error creating predicate for filter: " + filter + ", error: " + e.getMessage());
+                return BandQueryPlan.invalid(shape, e.getMessage());
+            }
+        }
+
+        List<BandQueryPlan.SortKey> keysetKeys = keysetKeys(sortKeys);
+        BandProjection projection = shape.getFields().isEmpty() ? null : projection(shape.getFields(), keysetKeys);
+        return new BandQueryPlan(shape, entityName, conditions, sortKeys, keysetKeys, projection);
+    }
+
+    /**
+     * @param groupBy {@code field}, {@code dateField:day|month|quarter|year} or {@code numericField:width}
+     * @param metrics {@code count}, {@code count(field)} or {@code sum|avg|min|max(field)}
+     */
+    public BandAggregation compileAggregation(List<String> groupBy, List<String> metrics) {
+        List<BandAggregation.GroupKey> keys = new ArrayList<>();
+        for (String spec : groupBy) {
+            keys.add(groupKey(spec));
+        }
+
+        List<BandAggregation.Metric> compiled = new ArrayList<>();
+        for (String spec : metrics) {
+            compiled.add(metric(spec));
+        }
+        if (compiled.isEmpty()) {
+            compiled.add(new BandAggregation.Metric("count", BandAggregation.Function.COUNT, null));
+        }
+
+        return new BandAggregation(entityName, keys, compiled);
+    }
+
+    public FieldRef field(String path) {
+        FieldRef cached = fields.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        FieldRef resolved = FieldRef.resolve(metamodel, entityType, ALIAS, path);
+        fields.putIfAbsent(path, resolved);
+        return resolved;
+    }
+
+    /*
+     * An embedded attribute stands for all of its columns. An unknown field is the client's error
+     * rather than a query that matches nothing, so unlike a bad filter it is thrown.
+     */
+    private BandProjection projection(List<String> requested, List<BandQueryPlan.SortKey> keysetKeys) {
+        Map<String, FieldRef> columns = new LinkedHashMap<>();
+        columns.put(ID_FIELD, field(ID_FIELD));
+        columns.put(VERSION_FIELD, field(VERSION_FIELD));
+
+        for (String path : requested) {
+            for (String column : columnPaths(path)) {
+                columns.put(column, field(column));
+            }
+        }
+
+        for (BandQueryPlan.SortKey key : keysetKeys) {
+            columns.putIfAbsent(key.getField().getPath(), key.getField());
+        }
+        return new BandProjection(entityType, requested, new ArrayList<>(columns.values()));
+    }
+
+    private List<String> columnPaths(String path) {
+        try {
+            if (!VERSION_FIELD.equals(path)) {
+                ManagedType<?> entity = metamodel.managedType(entityType);
+                Attribute<?, ?> attribute = path.indexOf('.') < 0 ? entity.getAttribute(path) : null;
+                if (attribute != null
+                        && attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+                    List<String> parts = new ArrayList<>();
+                    for (Attribute<?, ?> part : metamodel.embeddable(attribute.getJavaType()).getAttributes()) {
+                        parts.add(path + "." + part.getName());
+                    }
+                    Collections.sort(parts);
+                    return parts;
+                }
+                field(path);
+                return List.of(path);
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Unknown field '" + path + "' in fields");
+    }
+
+    private List<BandQueryPlan.SortKey> compileSortKeys(List<String> sorts) {
+        List<BandQueryPlan.SortKey> keys = new ArrayList<>();
+        for (String sort : sorts) {
+            int separator = sort.lastIndexOf(',');
+            String field = sort.substring(0, separator);
+            boolean descending = "desc".equals(sort.substring(separator + 1));
+            try {
+                keys.add(new BandQueryPlan.SortKey(field(field), descending));
+            } catch (Exception e) {
+                System.err.println("Error creating order for field: " + field + ", error: " + e.getMessage());
+            }
+        }
+        return keys;
+    }
+
+    private List<BandQueryPlan.SortKey> keysetKeys(List<BandQueryPlan.SortKey> sortKeys) {
+        List<BandQueryPlan.SortKey> keys = new ArrayList<>();
+        for (BandQueryPlan.SortKey key : sortKeys) {
+            keys.add(key);
+            if (ID_FIELD.equals(key.getField().getPath())) {
+                return keys;
+            }
+        }
+        keys.add(new BandQueryPlan.SortKey(field(ID_FIELD), false));
+        return keys;
+    }
+
+    private BandAggregation.GroupKey groupKey(String spec) {
+        int separator = spec.indexOf(':');
+        String path = separator < 0 ? spec : spec.substring(0, separator);
+        FieldRef fieldRef = aggregateField(path);
+        if (separator < 0) {
+            return new BandAggregation.GroupKey(path, fieldRef, BandAggregation.Bucket.VALUE, null);
+        }
+
+        String bucket = spec.substring(separator + 1).toLowerCase();
+        Class<?> fieldType = fieldRef.getJavaType();
+        if (fieldType == LocalDate.class) {
+            switch (bucket) {
+                case "day":
+                    return new BandAggregation.GroupKey(path + ":day", fieldRef, BandAggregation.Bucket.VALUE, null);
+                case "month":
+                    return new BandAggregation.GroupKey(path + ":month", fieldRef, BandAggregation.Bucket.MONTH, null);
+                case "quarter":
+                    return new BandAggregation.GroupKey(path + ":quarter", fieldRef, BandAggregation.Bucket.QUARTER, null);
+                case "year":
+                    return new BandAggregation.GroupKey(path + ":year", fieldRef, BandAggregation.Bucket.YEAR, null);
+                default:
+                    throw new IllegalArgumentException("Invalid date bucket '" + bucket + "' for field '" + path + "'. Allowed values: day, month, quarter, year");
+            }
+        }
+
+        if (FieldValues.isNumericType(fieldType)) {
+            try {
+                BigDecimal width = new BigDecimal(bucket);
+                if (width.signum() > 0) {
+                    return new BandAggregation.GroupKey(path + ":" + width.toPlainString(), fieldRef,
+                            BandAggregation.Bucket.RANGE, width);
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid bucket width '" + bucket + "' for field '" + path + "'. Expected a positive number");
+        }
+
+        throw new IllegalArgumentException("Buckets only work with numeric fields and dates. Field '" + path + "' is " + fieldType.getSimpleName());
+    }
+
+    private BandAggregation.Metric metric(String spec) {
+        String normalized = spec.replace(" ", "");
+        int open = normalized.indexOf('(');
+        if (open < 0 ? !normalized.equalsIgnoreCase("count") : !normalized.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid metric '" + spec + "'. Expected count or function(field)");
+        }
+
+        String functionName = open < 0 ? normalized : normalized.substring(0, open);
+        BandAggregation.Function function;
+        try {
+            function = BandAggregation.Function.valueOf(functionName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown metric function '" + functionName + "'. Supported: count, sum, avg, min, max");
+        }
+
+        String path = open < 0 ? "*" : normalized.substring(open + 1, normalized.length() - 1);
+        String name = function.name().toLowerCase() + "(" + path + ")";
+        if ("*".equals(path)) {
+            if (function != BandAggregation.Function.COUNT) {
+                throw new IllegalArgumentException("Metric '" + spec + "' needs a field");
+            }
+            return new BandAggregation.Metric(open < 0 ? "count" : name, function, null);
+        }
+
+        FieldRef fieldRef = aggregateField(path);
+        Class<?> fieldType = fieldRef.getJavaType();
+        boolean numeric = FieldValues.isNumericType(fieldType);
+        if ((function == BandAggregation.Function.SUM || function == BandAggregation.Function.AVG) && !numeric) {
+            throw new IllegalArgumentException("Metric '" + function.name().toLowerCase() + "' only works with numeric fields. Field '" + path + "' is " + fieldType.getSimpleName());
+        }
+        if ((function == BandAggregation.Function.MIN || function == BandAggregation.Function.MAX) && !numeric && fieldType != LocalDate.class) {
+            throw new IllegalArgumentException("Metric '" + function.name().toLowerCase() + "' only works with numeric fields and dates. Field '" + path + "' is " + fieldType.getSimpleName());
+        }
+        return new BandAggregation.Metric(name, function, fieldRef);
+    }
+
+    private FieldRef aggregateField(String path) {
+        if (path.isBlank()) {
+            throw new IllegalArgumentException("Field name cannot be empty");
+        }
+        return field(path.trim());
+    }
+
+    private void checkOperator(String field, FilterOperator operator, Class<?> fieldType) {
+        if (operator.isRange() && !FieldValues.isNumericType(fieldType) && fieldType != LocalDate.class) {
+            throw new IllegalArgumentException("Operator '" + operator.getCode() + "' only works with numeric fields and dates. Field '" + field + "' is " + fieldType.getSimpleName());
+        }
+        if (operator.isPattern() && fieldType != String.class) {
+            throw new IllegalArgumentException("Operator '" + operator.getCode() + "' only works with string fields. Field '" + field + "' is " + fieldType.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.musicband.api.repository.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, compiled form of a {@link QueryShape}: JPQL for the page, keyset and count
+ * queries plus typed parameter slots. Only values are bound per request.
+ */
+public final class BandQueryPlan {
+
+    private static final String TOTAL_ALIAS = "t";
+
+    private final QueryShape shape;
+    private final String invalidReason;
+    private final List<Condition> conditions;
+    private final List<SortKey> keysetKeys;
+    private final BandProjection projection;
+    private final String selectList;
+    private final String entityName;
+    private final String filterClause;
+    private final String selectJpql;
+    private final String countJpql;
+    private final String keysetOrderBy;
+    private final String firstKeysetSelect;
+    private final String totalSubquery;
+    private final ConcurrentMap<Integer, String> keysetSelects = new ConcurrentHashMap<>();
+
+    BandQueryPlan(QueryShape shape, String entityName, List<Condition> conditions,
+                  List<SortKey> sortKeys, List<SortKey> keysetKeys, BandProjection projection) {
+        this.shape = shape;
+        this.invalidReason = null;
+        this.entityName = entityName;
+        this.conditions = List.copyOf(conditions);
+        this.keysetKeys = List.copyOf(keysetKeys);
+        this.projection = projection;
+        this.selectList = projection != null ? projection.getSelectList() : BandQueryCompiler.ALIAS;
+
+        this.filterClause = filterClause(conditions, BandQueryCompiler.ALIAS);
+
+        String from = "select " + selectList + " from " + entityName + " " + BandQueryCompiler.ALIAS;
+        this.selectJpql = from + where(filterClause) + orderBy(sortKeys);
+        this.countJpql = "select count(" + BandQueryCompiler.ALIAS + ") from " + entityName + " "
+                + BandQueryCompiler.ALIAS + where(filterClause);
+        this.keysetOrderBy = keysetOrderBy(keysetKeys);
+        this.firstKeysetSelect = from + where(filterClause) + keysetOrderBy;
+        this.totalSubquery = "(select count(" + TOTAL_ALIAS + ") from " + entityName + " " + TOTAL_ALIAS
+                + where(filterClause(conditions, TOTAL_ALIAS)) + ")";
+    }
+
+    private BandQueryPlan(QueryShape shape, String invalidReason) {
+        this.shape = shape;
+        this.invalidReason = invalidReason;
+        this.entityName = null;
+        this.conditions = List.of();
+        this.keysetKeys = List.of();
+        this.projection = null;
+        this.selectList = BandQueryCompiler.ALIAS;
+        this.filterClause = "";
+        this.selectJpql = null;
+        this.countJpql = null;
+        this.keysetOrderBy = "";
+        this.firstKeysetSelect = null;
+        this.totalSubquery = null;
+    }
+
+    static BandQueryPlan invalid(QueryShape shape, String reason) {
+        return new BandQueryPlan(shape, reason);
+    }
+
+    public QueryShape getShape() {
+        return shape;
+    }
+
+    public boolean isValid() {
+        return invalidReason == null;
+    }
+
+    public String getInvalidReason() {
+        return invalidReason;
+    }
+
+    /**
+     * Columns selected instead of the entity when the shape asks for fields, otherwise null.
+     */
+    public BandProjection getProjection() {
+        return projection;
+    }
+
+    public String getSelectJpql() {
+        return selectJpql;
+    }
+
+    public String getCountJpql() {
+        return countJpql;
+    }
+
+    public String getFilterClause() {
+        return filterClause;
+    }
+
+    public String getFirstKeysetSelect() {
+        return firstKeysetSelect;
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    public List<SortKey> getKeysetKeys() {
+        return keysetKeys;
+    }
+
+    /**
+     * Turns {@code select b from ...} into {@code select b, (select count(t) ...) from ...}, so the page
+     * and the total of the filtered set come back in one statement. The subquery is uncorrelated,
+     * PostgreSQL evaluates it once per statement. With a projection the total follows its columns.
+     */
+    public String withTotal(String selectJpql) {
+        String prefix = "select " + selectList + " ";
+        if (!selectJpql.startsWith(prefix)) {
+            throw new IllegalArgumentException("Not a plan select: " + selectJpql);
+        }
+        return "select " + selectList + ", " + totalSubquery + " " + selectJpql.substring(prefix.length());
+    }
+
+    public BoundQuery bind(List<String> values) {
+        if (invalidReason != null) {
+            return BoundQuery.empty(this);
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            Condition condition = conditions.get(i);
+            String value = values.get(i);
+            try {
+                parameters.put(condition.getParameter(), condition.convert(value));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Filter validation error: " + e.getMessage() + " (filter: "
+                        + condition.getField().getPath() + ":" + condition.getOperator().getCode() + ":" + value + ")");
+                return BoundQuery.empty(this);
+            } catch (Exception e) {
+                System.err.println("Error creating predicate for filter: " + condition.getField().getPath() + ":"
+                        + condition.getOperator().getCode() + ":" + value + ", error: " + e.getMessage());
+                return BoundQuery.empty(this);
+            }
+        }
+
+        return new BoundQuery(this, parameters);
+    }
+
+    public PageCursor cursorAfter(Object lastRow) {
+        List<PageCursor.Key> keys = new ArrayList<>();
+        for (SortKey key : keysetKeys) {
+            keys.add(new PageCursor.Key(key.getField().getPath(), key.isDescending(),
+                    FieldValues.format(key.getField().read(lastRow))));
+        }
+        return new PageCursor(keys);
+    }
+
+    /*
+     * Expands (k1, ..., kn) > (v1, ..., vn) into
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... so that mixed directions work.
+     * NULLs sort last for ASC and first for DESC (the PostgreSQL default, made explicit
+     * in the keyset ORDER BY), "after" follows that order.
+     * The text depends on which cursor values are null, so it is memoized per null mask.
+     */
+    String keysetSelect(int nullMask) {
+        return keysetSelects.computeIfAbsent(nullMask, this::buildKeysetSelect);
+    }
+
+    private String buildKeysetSelect(int nullMask) {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < keysetKeys.size(); i++) {
+            SortKey key = keysetKeys.get(i);
+            boolean nullValue = (nullMask & (1 << i)) != 0;
+            if (nullValue && !key.isDescending()) {
+                continue;
+            }
+
+            List<String> conjunction = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String path = keysetKeys.get(j).getField().getJpql();
+                conjunction.add((nullMask & (1 << j)) != 0 ? path + " is null" : path + " = :" + cursorParameter(j));
+            }
+
+            String path = key.getField().getJpql();
+            if (key.isDescending()) {
+                conjunction.add(nullValue ? path + " is not null" : path + " < :" + cursorParameter(i));
+            } else {
+                conjunction.add("(" + path + " > :" + cursorParameter(i) + " or " + path + " is null)");
+            }
+            alternatives.add("(" + String.join(" and ", conjunction) + ")");
+        }
+
+        String keyset = alternatives.isEmpty() ? "1 = 0" : "(" + String.join(" or ", alternatives) + ")";
+        String predicate = filterClause.isEmpty() ? keyset : filterClause + " and " + keyset;
+        return "select " + selectList + " from " + entityName + " " + BandQueryCompiler.ALIAS
+                + where(predicate) + keysetOrderBy;
+    }
+
+    private static String filterClause(List<Condition> conditions, String alias) {
+        List<String> predicates = new ArrayList<>();
+        for (Condition condition : conditions) {
+            predicates.add(condition.toJpql(alias));
+        }
+        return String.join(" and ", predicates);
+    }
+
+    static String cursorParameter(int index) {
+        return "k" + index;
+    }
+
+    private static String where(String predicate) {
+        return predicate.isEmpty() ? "" : " where " + predicate;
+    }
+
+    private static String orderBy(List<SortKey> keys) {
+        if (keys.isEmpty()) {
+            return "";
+        }
+        List<String> orders = new ArrayList<>();
+        for (SortKey key : keys) {
+            orders.add(key.getField().getJpql() + (key.isDescending() ? " desc" : " asc"));
+        }
+        return " order by " + String.join(", ", orders);
+    }
+
+    private static String keysetOrderBy(List<SortKey> keys) {
+        List<String> orders = new ArrayList<>();
+        for (SortKey key : keys) {
+            orders.add(key.getField().getJpql() + (key.isDescending() ? " desc nulls first" : " asc nulls last"));
+        }
+        return " order by " + String.join(", ", orders);
+    }
+
+    public static final class Condition {
+        private final FieldRef field;
+        private final FilterOperator operator;
+        private final String parameter;
+
+        Condition(FieldRef field, FilterOperator operator, String parameter) {
+            this.field = field;
+            this.operator = operator;
+            this.parameter = parameter;
+        }
+
+        public FieldRef getField() {
+            return field;
+        }
+
+        public FilterOperator getOperator() {
+            return operator;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        Object convert(String value) {
+            Object converted = FieldValues.parse(field.getPath(), value, field.getJavaType());
+            if (operator == FilterOperator.CONTAINS) {
+                return "%" + FilterOperator.escapeLike(value.toLowerCase()) + "%";
+            }
+            if (operator == FilterOperator.STARTS_WITH) {
+                return FilterOperator.escapeLike(value.toLowerCase()) + "%";
+            }
+            return converted;
+        }
+
+        /*
+         * lower(name) is what the trigram and text_pattern_ops indexes of V3 are built on,
+         * so both pattern operators keep exactly this shape.
+         */
+        String toJpql(String alias) {
+            if (operator.isPattern()) {
+                return "lower(" + field.getJpql(alias) + ") like :" + parameter
+                        + " escape '" + FilterOperator.LIKE_ESCAPE + "'";
+            }
+            return field.getJpql(alias) + " " + operator.getJpql() + " :" + parameter;
+        }
+
+        /**
+         * The same predicate over a table column with the value as positional parameter {@code ?position}.
+         */
+        public String toSql(String column, int position) {
+            if (operator.isPattern()) {
+                return "lower(" + column + ") like ?" + position
+                        + " escape '" + FilterOperator.LIKE_ESCAPE + "'";
+            }
+            return column + " " + operator.getJpql() + " ?" + position;
+        }
+    }
+
+    public static final class SortKey {
+        private final FieldRef field;
+        private final boolean descending;
+
+        SortKey(FieldRef field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+
+        public FieldRef getField() {
+            return field;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.musicband.api.repository.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicband.api.model.CacheStatistics;
+import com.musicband.api.model.MusicBand;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+@ApplicationScoped
+public class BandQueryPlanner {
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
+
+    @PersistenceUnit(unitName = "musicBandPU")
+    private EntityManagerFactory entityManagerFactory;
+
+    private BandQueryCompiler compiler;
+    private int cacheSize;
+    private Cache<QueryShape, BandQueryPlan> plans;
+    private Cache<List<List<String>>, BandAggregation> aggregations;
+
+    @PostConstruct
+    public void init() {
+        compiler = new BandQueryCompiler(entityManagerFactory.getMetamodel(), MusicBand.class);
+        cacheSize = Integer.getInteger("query.plan.cache.size", DEFAULT_CACHE_SIZE);
+        plans = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        aggregations = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public BoundQuery prepare(List<String> sortFields, Map<String, String> filters) {
+        return prepare(sortFields, filters, null);
+    }
+
+    /**
+     * @param fields attribute names, each possibly a comma-separated list; none selects whole entities
+     */
+    public BoundQuery prepare(List<String> sortFields, Map<String, String> filters, List<String> fields) {
+        List<String[]> parsedFilters = parseFilters(filters);
+
+        List<String> shapeFilters = new ArrayList<>(parsedFilters.size());
+        List<String> values = new ArrayList<>(parsedFilters.size());
+        for (String[] filter : parsedFilters) {
+            shapeFilters.add(filter[0] + ":" + filter[1]);
+            values.add(filter[2]);
+        }
+
+        QueryShape shape = new QueryShape(shapeFilters, parseSorts(sortFields), parseFields(fields));
+        return plans.get(shape, compiler::compile).bind(values);
+    }
+
+    public BandAggregation prepareAggregation(List<String> groupBy, List<String> metrics) {
+        List<String> groupSpecs = trimmed(groupBy);
+        List<String> metricSpecs = trimmed(metrics);
+        return aggregations.get(List.of(groupSpecs, metricSpecs),
+                key -> compiler.compileAggregation(groupSpecs, metricSpecs));
+    }
+
+    public BandQueryCompiler getCompiler() {
+        return compiler;
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = plans.stats();
+        return new CacheStatistics("query-plans", plans.estimatedSize(), (long) cacheSize,
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    private static List<String> trimmed(List<String> specs) {
+        List<String> result = new ArrayList<>();
+        if (specs != null) {
+            for (String spec : specs) {
+                if (spec != null && !spec.isBlank()) {
+                    result.add(spec.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<String[]> parseFilters(Map<String, String> filters) {
+        List<String[]> parsed = new ArrayList<>();
+        if (filters == null || filters.isEmpty()) {
+            return parsed;
+        }
+
+        for (String filterExpression : filters.values()) {
+            String[] parts = filterExpression.split(":", 3);
+            if (parts.length != 3) {
+                System.err.println("Invalid filter format: " + filterExpression + " (expected field:operator:value)");
+                continue;
+            }
+            parsed.add(new String[]{parts[0].trim(), parts[1].trim().toLowerCase(), parts[2].trim()});
+        }
+
+        parsed.sort(Comparator.<String[], String>comparing(filter -> filter[0])
+                .thenComparing(filter -> filter[1])
+                .thenComparing(filter -> filter[2]));
+        return parsed;
+    }
+
+    private static List<String> parseFields(List<String> fields) {
+        Set<String> parsed = new TreeSet<>();
+        if (fields != null) {
+            for (String list : fields) {
+                for (String field : list.split(",")) {
+                    if (!field.isBlank()) {
+                        parsed.add(field.trim());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    private List<String> parseSorts(List<String> sortFields) {
+        List<String> sorts = new ArrayList<>();
+        if (sortFields == null || sortFields.isEmpty()) {
+            return sorts;
+        }
+
+        for (String sortField : sortFields) {
+            String[] parts = sortField.split(",");
+            if (parts.length < 1) {
+                continue;
+            }
+
+            String field = parts[0].trim();
+            String direction = parts.length > 1 ? parts[1].trim().toLowerCase() : "asc";
+            sorts.add(field + "," + ("desc".equals(direction) ? "desc" : "asc"));
+        }
+        return sorts;
+    }
+}
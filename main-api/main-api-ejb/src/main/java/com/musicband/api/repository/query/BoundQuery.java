@@ -0,0 +1,102 @@
+package com.musicband.api.repository.query;
+
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link BandQueryPlan} with the per-request parameter values bound.
+ */
+public final class BoundQuery {
+
+    private final BandQueryPlan plan;
+    private final Map<String, Object> parameters;
+    private final boolean empty;
+
+    BoundQuery(BandQueryPlan plan, Map<String, Object> parameters) {
+        this.plan = plan;
+        this.parameters = parameters;
+        this.empty = false;
+    }
+
+    private BoundQuery(BandQueryPlan plan) {
+        this.plan = plan;
+        this.parameters = Map.of();
+        this.empty = true;
+    }
+
+    static BoundQuery empty(BandQueryPlan plan) {
+        return new BoundQuery(plan);
+    }
+
+    public BandQueryPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * True when a filter can never match (invalid field, operator or value), no SQL is needed.
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public <T> TypedQuery<T> bind(TypedQuery<T> query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    public Keyset keyset(PageCursor cursor) {
+        if (cursor == null) {
+            return new Keyset(plan.getFirstKeysetSelect(), parameters);
+        }
+
+        List<BandQueryPlan.SortKey> keys = plan.getKeysetKeys();
+        List<PageCursor.Key> cursorKeys = cursor.getKeys();
+        if (cursorKeys.size() != keys.size()) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+
+        Map<String, Object> keysetParameters = new HashMap<>(parameters);
+        int nullMask = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            BandQueryPlan.SortKey key = keys.get(i);
+            PageCursor.Key cursorKey = cursorKeys.get(i);
+            if (!key.getField().getPath().equals(cursorKey.getField()) || key.isDescending() != cursorKey.isDescending()) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            if (cursorKey.getValue() == null) {
+                nullMask |= 1 << i;
+            } else {
+                keysetParameters.put(BandQueryPlan.cursorParameter(i),
+                        FieldValues.parse(key.getField().getPath(), cursorKey.getValue(), key.getField().getJavaType()));
+            }
+        }
+
+        return new Keyset(plan.keysetSelect(nullMask), keysetParameters);
+    }
+
+    public static final class Keyset {
+        private final String jpql;
+        private final Map<String, Object> parameters;
+
+        private Keyset(String jpql, Map<String, Object> parameters) {
+            this.jpql = jpql;
+            this.parameters = parameters;
+        }
+
+        public String getJpql() {
+            return jpql;
+        }
+
+        public <T> TypedQuery<T> bind(TypedQuery<T> query) {
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+    }
+}
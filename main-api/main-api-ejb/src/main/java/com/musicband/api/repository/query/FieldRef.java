@@ -0,0 +1,142 @@
+package com.musicband.api.repository.query;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attribute path of an entity resolved once against the JPA metamodel.
+ */
+public final class FieldRef {
+
+    private final String path;
+    private final String jpql;
+    private final Class<?> javaType;
+    private final List<Member> members;
+
+    private FieldRef(String path, String jpql, Class<?> javaType, List<Member> members) {
+        this.path = path;
+        this.jpql = jpql;
+        this.javaType = javaType;
+        this.members = members;
+    }
+
+    public static FieldRef resolve(Metamodel metamodel, Class<?> entityType, String alias, String path) {
+        ManagedType<?> type = metamodel.managedType(entityType);
+        List<Member> members = new ArrayList<>();
+        Class<?> javaType = null;
+
+        String[] parts = path.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            if (type == null) {
+                throw new IllegalArgumentException("Unable to locate attribute '" + path + "'");
+            }
+            Attribute<?, ?> attribute = type.getAttribute(parts[i]);
+            Member member = attribute.getJavaMember();
+            if (member instanceof Field) {
+                ((Field) member).setAccessible(true);
+            } else if (member instanceof Method) {
+                ((Method) member).setAccessible(true);
+            }
+            members.add(member);
+            javaType = attribute.getJavaType();
+            type = attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED
+                    ? metamodel.embeddable(javaType)
+                    : null;
+        }
+
+        if (type != null) {
+            throw new IllegalArgumentException("Attribute '" + path + "' is not a basic attribute");
+        }
+
+        return new FieldRef(path, alias + "." + path, javaType, List.copyOf(members));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public String getJpql(String alias) {
+        return alias + "." + path;
+    }
+
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+
+    public Object read(Object entity) {
+        Object current = entity;
+        for (Member member : members) {
+            if (current == null) {
+                return null;
+            }
+            current = readMember(member, current);
+        }
+        return current;
+    }
+
+    /**
+     * Sets the attribute on {@code entity}, creating the embeddable on the way when it is null.
+     * A null value leaves a missing embeddable missing, as Hibernate reads one with only null columns.
+     */
+    public void write(Object entity, Object value) {
+        Object current = entity;
+        for (int i = 0; i < members.size() - 1; i++) {
+            Field field = field(members.get(i));
+            Object next = readMember(field, current);
+            if (next == null) {
+                if (value == null) {
+                    return;
+                }
+                next = instantiate(field.getType());
+                writeField(field, current, next);
+            }
+            current = next;
+        }
+        writeField(field(members.get(members.size() - 1)), current, value);
+    }
+
+    private static Field field(Member member) {
+        if (!(member instanceof Field)) {
+            throw new IllegalStateException("Attribute " + member.getName() + " is not field-mapped");
+        }
+        return (Field) member;
+    }
+
+    private static Object instantiate(Class<?> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    private static void writeField(Field field, Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot write attribute " + field.getName(), e);
+        }
+    }
+
+    private static Object readMember(Member member, Object target) {
+        try {
+            if (member instanceof Field) {
+                return ((Field) member).get(target);
+            }
+            return ((Method) member).invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read attribute " + member.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.musicband.api.repository.query;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsing and validation of raw filter/cursor values against an attribute type.
+ */
+public final class FieldValues {
+
+    private static final Map<Class<?>, EnumLookup> ENUM_LOOKUPS = new ConcurrentHashMap<>();
+
+    private FieldValues() {
+    }
+
+    public static Object parse(String field, String value, Class<?> fieldType) {
+        validate(field, value, fieldType);
+        if (fieldType.isEnum()) {
+            return parseEnumValue(fieldType, value);
+        } else if (isNumericType(fieldType)) {
+            return parseNumericValue(fieldType, value);
+        } else if (fieldType == LocalDate.class) {
+            return parseDate(value);
+        }
+        return value;
+    }
+
+    public static String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Enum<?>) {
+            return ((Enum<?>) value).name();
+        }
+        return value.toString();
+    }
+
+    public static void validate(String field, String value, Class<?> fieldType) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Filter value cannot be empty for field '" + field + "'");
+        }
+
+        if (fieldType.isEnum()) {
+            try {
+                parseEnumValue(fieldType, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid value '" + value + "' for enum field '" + field + "'. " + e.getMessage());
+            }
+        }
+
+        if (isNumericType(fieldType)) {
+            try {
+                if (fieldType == Integer.class || fieldType == int.class ||
+                        fieldType == Long.class || fieldType == long.class) {
+                    if (value.contains(".")) {
+                        throw new NumberFormatException("Integer field cannot accept decimal values");
+                    }
+                }
+                parseNumericValue(fieldType, value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid numeric value '" + value + "' for field '" + field + "'. Expected " + fieldType.getSimpleName() + " (whole number for Integer fields)");
+            }
+        }
+
+        if (fieldType == LocalDate.class) {
+            try {
+                parseDate(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date value '" + value + "' for field '" + field + "'. Expected format: YYYY-MM-DD");
+            }
+        }
+    }
+
+    public static boolean isNumericType(Class<?> type) {
+        return type == Integer.class || type == int.class ||
+                type == Long.class || type == long.class ||
+                type == Double.class || type == double.class ||
+                type == Float.class || type == float.class;
+    }
+
+    public static Number parseNumericValue(Class<?> type, String value) {
+        try {
+            if (type == Integer.class || type == int.class) {
+                return Integer.parseInt(value);
+            } else if (type == Long.class || type == long.class) {
+                return Long.parseLong(value);
+            } else if (type == Double.class || type == double.class) {
+                return Double.parseDouble(value);
+            } else if (type == Float.class || type == float.class) {
+                return Float.parseFloat(value);
+            }
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Cannot parse '" + value + "' as " + type.getSimpleName());
+        }
+        throw new IllegalArgumentException("Unsupported numeric type: " + type.getSimpleName());
+    }
+
+    public static Enum<?> parseEnumValue(Class<?> enumType, String value) {
+        return ENUM_LOOKUPS.computeIfAbsent(enumType, EnumLookup::new).find(value);
+    }
+
+    public static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new DateTimeParseException("Invalid date format: " + value + ". Expected format: YYYY-MM-DD", value, 0);
+        }
+    }
+
+    private static final class EnumLookup {
+        private final Map<String, Enum<?>> exact = new HashMap<>();
+        private final Map<String, Enum<?>> ignoreCase = new HashMap<>();
+        private final String availableValues;
+
+        private EnumLookup(Class<?> enumType) {
+            StringBuilder available = new StringBuilder();
+            for (Object constant : enumType.getEnumConstants()) {
+                Enum<?> enumConstant = (Enum<?>) constant;
+                exact.put(enumConstant.name(), enumConstant);
+                ignoreCase.putIfAbsent(enumConstant.name().toUpperCase(Locale.ROOT), enumConstant);
+                if (available.length() > 0) {
+                    available.append(", ");
+                }
+                available.append(enumConstant.name());
+            }
+            this.availableValues = available.toString();
+        }
+
+        private Enum<?> find(String value) {
+            Enum<?> constant = exact.get(value);
+            if (constant == null) {
+                constant = ignoreCase.get(value.toUpperCase(Locale.ROOT));
+            }
+            if (constant == null) {
+                throw new IllegalArgumentException("Available values: " + availableValues);
+            }
+            return constant;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.musicband.api.repository.query;
+
+public enum FilterOperator {
+    EQ("eq", "="),
+    NE("ne", "<>"),
+    GT("gt", ">"),
+    GTE("gte", ">="),
+    LT("lt", "<"),
+    LTE("lte", "<="),
+    CONTAINS("contains", "like"),
+    STARTS_WITH("startswith", "like");
+
+    public static final char LIKE_ESCAPE = '\\';
+
+    private final String code;
+    private final String jpql;
+
+    FilterOperator(String code, String jpql) {
+        this.code = code;
+        this.jpql = jpql;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public boolean isRange() {
+        return this == GT || this == GTE || this == LT || this == LTE;
+    }
+
+    public boolean isPattern() {
+        return this == CONTAINS || this == STARTS_WITH;
+    }
+
+    /**
+     * {@code value} with the LIKE wildcards and the escape character escaped by {@link #LIKE_ESCAPE}.
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    public static FilterOperator fromCode(String code) {
+        for (FilterOperator operator : values()) {
+            if (operator.code.equals(code)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operator: " + code + ". Supported operators: " + supportedCodes());
+    }
+
+    public static String supportedCodes() {
+        StringBuilder codes = new StringBuilder();
+        for (FilterOperator operator : values()) {
+            if (codes.length() > 0) {
+                codes.append(", ");
+            }
+            codes.append(operator.code);
+        }
+        return codes.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.musicband.api.repository.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * Holds the sort-key values of the last returned row, the final key is always {@code id}.
+ */
+public final class PageCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int FORMAT_VERSION = 1;
+
+    private final List<Key> keys;
+
+    public PageCursor(List<Key> keys) {
+        this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+    }
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(keys.size());
+            for (Key key : keys) {
+                out.writeUTF(key.getField());
+                out.writeBoolean(key.isDescending());
+                out.writeBoolean(key.getValue() != null);
+                if (key.getValue() != null) {
+                    out.writeUTF(key.getValue());
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(Base64.getUrlDecoder().decode(token.trim())));
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor version");
+            }
+            int size = in.readShort();
+            List<Key> keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String field = in.readUTF();
+                boolean descending = in.readBoolean();
+                String value = in.readBoolean() ? in.readUTF() : null;
+                keys.add(new Key(field, descending, value));
+            }
+            if (in.available() > 0 || keys.isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new PageCursor(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public static final class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String field;
+        private final boolean descending;
+        private final String value;
+
+        public Key(String field, boolean descending, String value) {
+            this.field = field;
+            this.descending = descending;
+            this.value = value;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
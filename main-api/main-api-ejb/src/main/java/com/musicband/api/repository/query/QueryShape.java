@@ -0,0 +1,66 @@
+package com.musicband.api.repository.query;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Normalized filter/sort/field set with the filter values stripped, used as the plan cache key.
+ */
+public final class QueryShape implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> filters;
+    private final List<String> sorts;
+    private final List<String> fields;
+
+    public QueryShape(List<String> filters, List<String> sorts, List<String> fields) {
+        this.filters = List.copyOf(filters);
+        this.sorts = List.copyOf(sorts);
+        this.fields = List.copyOf(fields);
+    }
+
+    /**
+     * Filters as {@code field:operator}, in binding order.
+     */
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    /**
+     * Sort keys as {@code field,direction}, in request order.
+     */
+    public List<String> getSorts() {
+        return sorts;
+    }
+
+    /**
+     * Requested attributes in name order, empty for whole entities.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryShape)) {
+            return false;
+        }
+        QueryShape that = (QueryShape) o;
+        return filters.equals(that.filters) && sorts.equals(that.sorts) && fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filters, sorts, fields);
+    }
+
+    @Override
+    public String toString() {
+        return "filters=" + filters + ", sort=" + sorts + (fields.isEmpty() ? "" : ", fields=" + fields);
+    }
+}
@@ -0,0 +1,36 @@
+package com.musicband.api.service;
+
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.repository.MusicBandRepository;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Writes one chunk of a bulk create in its own transaction, so a failed chunk
+ * rolls back alone and the chunks before it stay committed.
+ */
+@Stateless
+public class BandBulkWriter {
+
+    @Inject
+    private MusicBandRepository repository;
+
+    @Inject
+    private Event<BandChangedEvent> bandChanged;
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<MusicBand> createChunk(List<MusicBand> bands) {
+        List<MusicBand> created = repository.createAll(bands);
+        for (MusicBand band : created) {
+            bandChanged.fire(new BandChangedEvent(band.getId(), BandChangedEvent.Type.CREATED,
+                    null, BandChangedEvent.State.of(band)));
+        }
+        return created;
+    }
+}
@@ -1,14 +1,41 @@
 package com.musicband.api.service;
 
+import com.musicband.api.cache.BandCache;
+import com.musicband.api.cache.BandXmlCache;
+import com.musicband.api.cache.OrmCacheStatistics;
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.exception.BandVersionConflictException;
+import com.musicband.api.model.AggregateResponse;
 import com.musicband.api.model.AverageParticipantsResponse;
+import com.musicband.api.model.BandSuggestion;
 import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.BulkBandsResponse;
+import com.musicband.api.model.CacheStatistics;
+import com.musicband.api.model.CacheStatisticsResponse;
+import com.musicband.api.model.ImportChunkResult;
 import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.api.model.SuggestResponse;
+import com.musicband.api.model.TotalElementsMode;
+import com.musicband.api.repository.BandPage;
+import com.musicband.api.repository.BandUpdate;
 import com.musicband.api.repository.MusicBandRepository;
+import com.musicband.api.repository.query.BandQueryPlanner;
+import com.musicband.api.repository.query.PageCursor;
+import com.musicband.api.statistics.ParticipantStatistics;
+import com.musicband.codec.Validators;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,104 +45,345 @@ import org.jboss.ejb3.annotation.Pool;
 @Pool("slsb-strict-max-pool")
 public class MusicBandService implements MusicBandServiceRemote {
 
+    /**
+     * Bands per transaction for bulk creates and streamed imports, {@code -Dband.bulk.chunk.size}.
+     */
+    public static final int BULK_CHUNK_SIZE = Integer.getInteger("band.bulk.chunk.size", 500);
+
     @Inject
     private MusicBandRepository repository;
 
+    @Inject
+    private BandQueryPlanner queryPlanner;
+
+    @Inject
+    private OrmCacheStatistics ormCacheStatistics;
+
+    @Inject
+    private BandCache bandCache;
+
+    @Inject
+    private BandXmlCache bandXmlCache;
+
+    @Inject
+    private Event<BandChangedEvent> bandChanged;
+
+    @Inject
+    private Validator validator;
+
+    @Inject
+    private ParticipantStatistics participantStatistics;
+
+    @Inject
+    private BandBulkWriter bulkWriter;
+
+    @Override
+    public BandsResponse getAllBands(int page, int size, List<String> sortFields, Map<String, String> filters,
+                                     List<String> fields, TotalElementsMode totalElements) {
+        BandPage result = repository.findAll(page, size, sortFields, filters, fields, totalElements);
+
+        return new BandsResponse(result.getBands(), result.getTotalElements(),
+                totalPages(result.getTotalElements(), size), page, size, null, result.getFields());
+    }
+
     @Override
-    public BandsResponse getAllBands(int page, int size, List<String> sortFields, Map<String, String> filters) {
-        List<MusicBand> bands = repository.findAll(page, size, sortFields, filters);
-        long totalElements = repository.count(filters);
-        int totalPages = (int) Math.ceil((double) totalElements / size);
+    public BandsResponse getBandsAfter(String cursor, int size, List<String> sortFields, Map<String, String> filters,
+                                       List<String> fields, TotalElementsMode totalElements) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        BandPage result = repository.findAfter(pageCursor, size + 1, sortFields, filters, fields, totalElements);
+
+        List<MusicBand> bands = result.getBands();
+        String nextCursor = null;
+        if (bands.size() > size) {
+            bands = new ArrayList<>(bands.subList(0, size));
+            nextCursor = repository.cursorAfter(bands.get(size - 1), sortFields).encode();
+        }
 
-        return new BandsResponse(bands, totalElements, totalPages, page, size);
+        return new BandsResponse(bands, result.getTotalElements(),
+                totalPages(result.getTotalElements(), size), null, size, nextCursor, result.getFields());
     }
 
     @Override
     public MusicBand getBandById(Integer id) {
-        return repository.findById(id).orElse(null);  
+        return bandCache.get(id);
     }
 
     @Override
     public MusicBand createBand(MusicBand band) {
         band.setId(null);
-        return repository.create(band);
+        MusicBand created = repository.create(band);
+        bandChanged.fire(new BandChangedEvent(created.getId(), BandChangedEvent.Type.CREATED,
+                null, BandChangedEvent.State.of(created)));
+        return created;
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public BulkBandsResponse createBands(List<MusicBand> bands) {
+        List<MusicBand> created = new ArrayList<>(bands.size());
+        List<String> errors = new ArrayList<>();
+        createAll(bands, new BulkOutcome() {
+            @Override
+            public void created(int position, MusicBand band) {
+                created.add(band);
+            }
+
+            @Override
+            public void failed(int position, String message) {
+                errors.add("Band #" + (position + 1) + ": " + message);
+            }
+        });
+
+        BulkBandsResponse response = new BulkBandsResponse();
+        response.setSuccessful(created);
+        response.setErrors(errors);
+        response.setTotalProcessed(bands.size());
+        response.setSuccessCount(created.size());
+        response.setErrorCount(errors.size());
+        return response;
     }
 
     @Override
-    public MusicBand updateBand(Integer id, MusicBand updatedBand) {
-        Optional<MusicBand> existing = repository.findById(id);
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ImportChunkResult importBands(List<MusicBand> bands) {
+        Integer[] ids = new Integer[bands.size()];
+        String[] errors = new String[bands.size()];
+        createAll(bands, new BulkOutcome() {
+            @Override
+            public void created(int position, MusicBand band) {
+                ids[position] = band.getId();
+            }
+
+            @Override
+            public void failed(int position, String message) {
+                errors[position] = message;
+            }
+        });
+        return new ImportChunkResult(Arrays.asList(ids), Arrays.asList(errors));
+    }
+
+    /*
+     * Invalid bands are reported up front, the rest is inserted in chunks of one transaction each.
+     * A chunk that fails in the database is rolled back and retried band by band, so only the
+     * offending bands are reported as failed.
+     */
+    private void createAll(List<MusicBand> bands, BulkOutcome outcome) {
+        List<MusicBand> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        List<Integer> positions = new ArrayList<>(BULK_CHUNK_SIZE);
+        for (int i = 0; i < bands.size(); i++) {
+            MusicBand band = bands.get(i);
+            try {
+                if (band == null) {
+                    throw new IllegalArgumentException("Band cannot be null");
+                }
+                validate(band);
+            } catch (IllegalArgumentException e) {
+                outcome.failed(i, e.getMessage());
+                continue;
+            }
+            band.setId(null);
+            band.setVersion(null);
+            chunk.add(band);
+            positions.add(i);
+
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                createChunk(chunk, positions, outcome);
+                chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+                positions = new ArrayList<>(BULK_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            createChunk(chunk, positions, outcome);
+        }
+    }
 
-        if (existing.isEmpty()) {
-            return null;  
+    private void createChunk(List<MusicBand> chunk, List<Integer> positions, BulkOutcome outcome) {
+        try {
+            List<MusicBand> created = bulkWriter.createChunk(chunk);
+            for (int i = 0; i < created.size(); i++) {
+                outcome.created(positions.get(i), created.get(i));
+            }
+            return;
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                outcome.failed(positions.get(0), rootMessage(e));
+                return;
+            }
         }
 
-        MusicBand band = existing.get();
-        band.setName(updatedBand.getName());
-        band.setCoordinates(updatedBand.getCoordinates());
-        band.setNumberOfParticipants(updatedBand.getNumberOfParticipants());
-        band.setAlbumsCount(updatedBand.getAlbumsCount());
-        band.setGenre(updatedBand.getGenre());
-        band.setLabel(updatedBand.getLabel());
+        for (int i = 0; i < chunk.size(); i++) {
+            MusicBand band = chunk.get(i);
+            // ids and versions assigned in the rolled back chunk are gone with it
+            band.setId(null);
+            band.setVersion(null);
+            try {
+                outcome.created(positions.get(i), bulkWriter.createChunk(List.of(band)).get(0));
+            } catch (RuntimeException e) {
+                outcome.failed(positions.get(i), rootMessage(e));
+            }
+        }
+    }
 
-        return repository.update(band);  
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
     }
 
     @Override
-    public MusicBand patchBand(Integer id, MusicBand patchData) {
-        Optional<MusicBand> existing = repository.findById(id);
+    public MusicBand updateBand(Integer id, MusicBand updatedBand, Long expectedVersion) {
+        validate(updatedBand);
 
-        if (existing.isEmpty()) {
-            return null;  
-        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", updatedBand.getName());
+        changes.put("coordinates.x", updatedBand.getCoordinates().getX());
+        changes.put("coordinates.y", updatedBand.getCoordinates().getY());
+        changes.put("numberOfParticipants", updatedBand.getNumberOfParticipants());
+        changes.put("albumsCount", updatedBand.getAlbumsCount());
+        changes.put("genre", updatedBand.getGenre());
+        changes.put("label.sales", updatedBand.getLabel() != null ? updatedBand.getLabel().getSales() : null);
+
+        return write(id, changes, expectedVersion);
+    }
 
-        MusicBand band = existing.get();
+    @Override
+    public MusicBand patchBand(Integer id, MusicBand patchData, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
 
         if (patchData.getName() != null) {
             if (patchData.getName().isBlank()) {
                 throw new IllegalArgumentException("Name cannot be empty");
             }
-            band.setName(patchData.getName());
+            changes.put("name", patchData.getName());
         }
 
         if (patchData.getCoordinates() != null) {
-            band.setCoordinates(patchData.getCoordinates());
+            validate(patchData.getCoordinates());
+            changes.put("coordinates.x", patchData.getCoordinates().getX());
+            changes.put("coordinates.y", patchData.getCoordinates().getY());
         }
 
         if (patchData.getNumberOfParticipants() != null) {
             if (patchData.getNumberOfParticipants() < 1) {
                 throw new IllegalArgumentException("Number of participants must be greater than 0");
             }
-            band.setNumberOfParticipants(patchData.getNumberOfParticipants());
+            changes.put("numberOfParticipants", patchData.getNumberOfParticipants());
         }
 
         if (patchData.getAlbumsCount() != null) {
             if (patchData.getAlbumsCount() < 1) {
                 throw new IllegalArgumentException("Albums count must be greater than 0");
             }
-            band.setAlbumsCount(patchData.getAlbumsCount());
+            changes.put("albumsCount", patchData.getAlbumsCount());
         }
 
         if (patchData.getGenre() != null) {
-            band.setGenre(patchData.getGenre());
+            changes.put("genre", patchData.getGenre());
         }
 
         if (patchData.getLabel() != null) {
-            band.setLabel(patchData.getLabel());
+            validate(patchData.getLabel());
+            changes.put("label.sales", patchData.getLabel().getSales());
+        }
+
+        return write(id, changes, expectedVersion);
+    }
+
+    @Override
+    public boolean deleteBand(Integer id, Long expectedVersion) {
+        Optional<MusicBand> deleted = repository.delete(id, expectedVersion);
+        if (deleted.isEmpty()) {
+            if (expectedVersion == null) {
+                return false;
+            }
+            Long currentVersion = repository.findVersion(id);
+            if (currentVersion == null) {
+                return false;
+            }
+            throw new BandVersionConflictException(id, currentVersion);
         }
 
-        return repository.update(band);  
+        bandChanged.fire(new BandChangedEvent(id, BandChangedEvent.Type.DELETED,
+                BandChangedEvent.State.of(deleted.get()), null));
+        return true;
+    }
+
+    @Override
+    public AverageParticipantsResponse getAverageParticipants(MusicGenre genre) {
+        return new AverageParticipantsResponse(participantStatistics.getAverage(genre),
+                (int) participantStatistics.getCount(genre));
     }
 
     @Override
-    public boolean deleteBand(Integer id) {
-        return repository.delete(id);
+    public AggregateResponse aggregateBands(List<String> groupBy, List<String> metrics, Map<String, String> filters) {
+        return new AggregateResponse(repository.aggregate(groupBy, metrics, filters));
+    }
+
+    @Override
+    public SuggestResponse suggestBands(String prefix, int limit) {
+        List<BandSuggestion> suggestions = new ArrayList<>();
+        for (Object[] row : repository.findNamesByPrefix(prefix, limit)) {
+            suggestions.add(new BandSuggestion(((Number) row[0]).intValue(), (String) row[1]));
+        }
+        return new SuggestResponse(suggestions);
+    }
+
+    /*
+     * One UPDATE ... RETURNING on the happy path. Only when no row came back is the version
+     * looked up, to tell a missing band (404) from a stale If-Match (412).
+     */
+    private MusicBand write(Integer id, Map<String, Object> changes, Long expectedVersion) {
+        if (changes.isEmpty()) {
+            MusicBand band = repository.findById(id).orElse(null);
+            if (band != null && expectedVersion != null && !expectedVersion.equals(band.getVersion())) {
+                throw new BandVersionConflictException(id, band.getVersion());
+            }
+            return band;
+        }
+
+        Optional<BandUpdate> written = repository.update(id, changes, expectedVersion);
+        if (written.isEmpty()) {
+            Long currentVersion = expectedVersion != null ? repository.findVersion(id) : null;
+            if (currentVersion == null) {
+                return null;
+            }
+            throw new BandVersionConflictException(id, currentVersion);
+        }
+
+        BandUpdate update = written.get();
+        bandChanged.fire(new BandChangedEvent(id, BandChangedEvent.Type.UPDATED,
+                new BandChangedEvent.State(update.getPreviousName(), update.getPreviousParticipants(),
+                        update.getPreviousGenre()),
+                BandChangedEvent.State.of(update.getBand())));
+        return update.getBand();
+    }
+
+    private void validate(Object value) {
+        String violations = Validators.describeViolations(validator, value);
+        if (violations != null) {
+            throw new IllegalArgumentException(violations);
+        }
+    }
+
+    private Integer totalPages(Long totalElements, int size) {
+        return totalElements != null ? (int) Math.ceil((double) totalElements / size) : null;
     }
 
     @Override
-    public AverageParticipantsResponse getAverageParticipants() {
-        Double average = repository.getAverageParticipants();
-        long totalBands = repository.count(null);
+    public CacheStatisticsResponse getCacheStatistics() {
+        List<CacheStatistics> caches = new ArrayList<>();
+        caches.add(bandCache.getStatistics());
+        caches.add(bandXmlCache.getStatistics());
+        caches.add(queryPlanner.getStatistics());
+        caches.addAll(ormCacheStatistics.getStatistics());
+        return new CacheStatisticsResponse(caches);
+    }
+
+    private interface BulkOutcome {
+        void created(int position, MusicBand band);
 
-        return new AverageParticipantsResponse(average, (int) totalBands);
+        void failed(int position, String message);
     }
-}
\ No newline at end of file
+}
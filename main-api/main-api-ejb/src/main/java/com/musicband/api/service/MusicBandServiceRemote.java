@@ -1,8 +1,15 @@
 package com.musicband.api.service;
 
+import com.musicband.api.model.AggregateResponse;
 import com.musicband.api.model.AverageParticipantsResponse;
 import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.BulkBandsResponse;
+import com.musicband.api.model.CacheStatisticsResponse;
+import com.musicband.api.model.ImportChunkResult;
 import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.api.model.SuggestResponse;
+import com.musicband.api.model.TotalElementsMode;
 import jakarta.ejb.Remote;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -13,17 +20,49 @@ import java.util.Map;
 @Remote
 public interface MusicBandServiceRemote {
 
-    BandsResponse getAllBands(int page, int size, List<String> sortFields, Map<String, String> filters);
+    /**
+     * @param fields attributes to select instead of whole bands, the id and sort keys are always included
+     */
+    BandsResponse getAllBands(int page, int size, List<String> sortFields, Map<String, String> filters,
+                              List<String> fields, TotalElementsMode totalElements);
+
+    BandsResponse getBandsAfter(String cursor, int size, List<String> sortFields, Map<String, String> filters,
+                                List<String> fields, TotalElementsMode totalElements);
 
     MusicBand getBandById(Integer id);  
 
     MusicBand createBand(@Valid @NotNull MusicBand band);
 
-    MusicBand updateBand(Integer id, @Valid @NotNull MusicBand updatedBand);  
+    /**
+     * Creates every valid band, reporting the others in {@link BulkBandsResponse#getErrors()}.
+     */
+    BulkBandsResponse createBands(@NotNull List<MusicBand> bands);
+
+    /**
+     * Same as {@link #createBands(List)} without echoing the bands back, for streamed imports.
+     */
+    ImportChunkResult importBands(@NotNull List<MusicBand> bands);
+
+    /**
+     * @param expectedVersion version from the client's If-Match, {@code null} for an unconditional update
+     */
+    MusicBand updateBand(Integer id, @Valid @NotNull MusicBand updatedBand, Long expectedVersion);
+
+    MusicBand patchBand(Integer id, MusicBand patchData, Long expectedVersion);
+
+    boolean deleteBand(Integer id, Long expectedVersion);
+
+    /**
+     * @param genre restricts the average to one genre, {@code null} for all bands
+     */
+    AverageParticipantsResponse getAverageParticipants(MusicGenre genre);
 
-    MusicBand patchBand(Integer id, MusicBand patchData);  
+    AggregateResponse aggregateBands(List<String> groupBy, List<String> metrics, Map<String, String> filters);
 
-    boolean deleteBand(Integer id);
+    /**
+     * Bands whose name starts with {@code prefix}, ignoring case, in name order.
+     */
+    SuggestResponse suggestBands(String prefix, int limit);
 
-    AverageParticipantsResponse getAverageParticipants();
+    CacheStatisticsResponse getCacheStatistics();
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.musicband.api.statistics;
+
+import com.musicband.api.event.BandChangedEvent;
+import com.musicband.api.event.BandsBulkLoadedEvent;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.api.repository.MusicBandRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Asynchronous;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Logger;
+
+/**
+ * Running band count and participant sum, overall and per genre, so the average is answered
+ * without touching the table. Committed writes apply their delta, a periodic GROUP BY recompute
+ * replaces the totals and corrects any drift (e.g. rows changed outside this service).
+ * <p>
+ * A writing transaction holds a read stamp from just before its commit until its delta is applied,
+ * the recompute holds the write lock while it queries and replaces the totals. Every commit is then
+ * either part of the recomputed totals or applied on top of them, writers only wait out the query.
+ */
+@Singleton
+@Startup
+@DependsOn("SchemaMigrator")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ParticipantStatistics {
+
+    private static final Logger LOGGER = Logger.getLogger(ParticipantStatistics.class.getName());
+
+    private static final Object PENDING_DELTA = ParticipantStatistics.class.getName() + ".pendingDelta";
+    private static final long RECOMPUTE_WAIT_SECONDS = 30;
+
+    @Inject
+    private MusicBandRepository repository;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    private final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+    private final StampedLock commits = new StampedLock();
+
+    @PostConstruct
+    public void init() {
+        recompute();
+    }
+
+    @Schedule(minute = "*/5", hour = "*", persistent = false)
+    public void recompute() {
+        long stamp;
+        try {
+            stamp = commits.tryWriteLock(RECOMPUTE_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (stamp == 0) {
+            LOGGER.warning("Skipped participant statistics recompute, commits kept it waiting for "
+                    + RECOMPUTE_WAIT_SECONDS + "s");
+            return;
+        }
+
+        try {
+            Totals computed = Totals.EMPTY;
+            for (Object[] row : repository.participantTotalsByGenre()) {
+                long count = ((Number) row[1]).longValue();
+                long sum = row[2] != null ? ((Number) row[2]).longValue() : 0;
+                computed = computed.add((MusicGenre) row[0], count, sum);
+            }
+            totals.set(computed);
+        } catch (Exception e) {
+            LOGGER.warning("Failed to recompute participant statistics: " + e.getMessage());
+        } finally {
+            commits.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Observers of a session bean have to be business methods. SUPPORTS keeps the writer's
+     * transaction, or none, instead of the container starting one just for this call.
+     */
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public void onChange(@Observes BandChangedEvent event) {
+        if (transactions.getTransactionKey() == null) {
+            apply(List.of(event));
+            return;
+        }
+
+        PendingDelta pending = (PendingDelta) transactions.getResource(PENDING_DELTA);
+        if (pending == null) {
+            pending = new PendingDelta();
+            transactions.putResource(PENDING_DELTA, pending);
+            transactions.registerInterposedSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    /*
+     * The committed import transaction is still bound to the thread here, the query could not enlist
+     * its connection. Asynchronous runs it in a transaction of its own, and the import does not wait
+     * for the GROUP BY.
+     */
+    @Asynchronous
+    public void onBulkLoad(@Observes(during = TransactionPhase.AFTER_SUCCESS) BandsBulkLoadedEvent event) {
+        recompute();
+    }
+
+    public long getCount(MusicGenre genre) {
+        return totals.get().get(genre)[0];
+    }
+
+    public double getAverage(MusicGenre genre) {
+        long[] entry = totals.get().get(genre);
+        return entry[0] > 0 ? (double) entry[1] / entry[0] : 0.0;
+    }
+
+    private void apply(List<BandChangedEvent> events) {
+        totals.updateAndGet(current -> {
+            Totals next = current;
+            for (BandChangedEvent event : events) {
+                BandChangedEvent.State before = event.getBefore();
+                BandChangedEvent.State after = event.getAfter();
+                if (before != null) {
+                    next = next.add(before.getGenre(), -1, -participants(before));
+                }
+                if (after != null) {
+                    next = next.add(after.getGenre(), 1, participants(after));
+                }
+            }
+            return next;
+        });
+    }
+
+    private static long participants(BandChangedEvent.State state) {
+        return state.getNumberOfParticipants() != null ? state.getNumberOfParticipants() : 0;
+    }
+
+    /*
+     * Band changes of one transaction. The read stamp is taken before the commit, so a running
+     * recompute either sees none of them or finishes before they are committed and applied.
+     */
+    private final class PendingDelta implements Synchronization {
+
+        private final List<BandChangedEvent> events = new ArrayList<>();
+        private long stamp;
+
+        @Override
+        public void beforeCompletion() {
+            stamp = commits.readLock();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // Rolled back before the commit started, nothing to apply or release
+            if (stamp == 0) {
+                return;
+            }
+            try {
+                if (status == Status.STATUS_COMMITTED) {
+                    apply(events);
+                }
+            } finally {
+                commits.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot, {@code [count, sum]} overall and per genre. Copied on every change,
+     * which is cheap with a handful of genres and keeps readers lock-free.
+     */
+    private static final class Totals {
+
+        static final Totals EMPTY = new Totals(new long[2], new EnumMap<>(MusicGenre.class));
+
+        private final long[] overall;
+        private final EnumMap<MusicGenre, long[]> byGenre;
+
+        private Totals(long[] overall, EnumMap<MusicGenre, long[]> byGenre) {
+            this.overall = overall;
+            this.byGenre = byGenre;
+        }
+
+        long[] get(MusicGenre genre) {
+            if (genre == null) {
+                return overall;
+            }
+            long[] entry = byGenre.get(genre);
+            return entry != null ? entry : EMPTY.overall;
+        }
+
+        Totals add(MusicGenre genre, long count, long sum) {
+            EnumMap<MusicGenre, long[]> nextByGenre = new EnumMap<>(byGenre);
+            if (genre != null) {
+                long[] entry = get(genre);
+                nextByGenre.put(genre, new long[]{entry[0] + count, entry[1] + sum});
+            }
+            return new Totals(new long[]{overall[0] + count, overall[1] + sum}, nextByGenre);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.musicband.api.xml;
+
+import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.Coordinates;
+import com.musicband.api.model.Label;
+import com.musicband.api.model.MusicBand;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import static com.musicband.codec.XmlValues.writeElement;
+
+/**
+ * {@link MusicBand} and {@link BandsResponse} written field by field, in the element order and
+ * format of their JAXB mapping. A mapping change has to be repeated here.
+ */
+public final class BandXml {
+
+    private BandXml() {
+    }
+
+    public static void writeBandsResponse(XMLStreamWriter writer, BandsResponse response) throws XMLStreamException {
+        writeBandsResponse(writer, response, BandXml::writeBand);
+    }
+
+    /**
+     * Same, with each {@code <musicBand>} written by {@code bands}, e.g. from cached fragments.
+     */
+    public static void writeBandsResponse(XMLStreamWriter writer, BandsResponse response, BandWriter bands)
+            throws XMLStreamException {
+        writer.writeStartElement("bandsResponse");
+        if (response.getBands() != null) {
+            writer.writeStartElement("bands");
+            for (MusicBand band : response.getBands()) {
+                bands.write(writer, band);
+            }
+            writer.writeEndElement();
+        }
+        writeElement(writer, "totalElements", response.getTotalElements());
+        writeElement(writer, "totalPages", response.getTotalPages());
+        writeElement(writer, "currentPage", response.getCurrentPage());
+        writeElement(writer, "pageSize", response.getPageSize());
+        writeElement(writer, "nextCursor", response.getNextCursor());
+        writer.writeEndElement();
+    }
+
+    public static void writeBand(XMLStreamWriter writer, MusicBand band) throws XMLStreamException {
+        writer.writeStartElement("musicBand");
+        writeElement(writer, "id", band.getId());
+        writeElement(writer, "name", band.getName());
+        Coordinates coordinates = band.getCoordinates();
+        if (coordinates != null) {
+            writer.writeStartElement("coordinates");
+            writeElement(writer, "x", coordinates.getX());
+            writeElement(writer, "y", coordinates.getY());
+            writer.writeEndElement();
+        }
+        if (band.getCreationDate() != null) {
+            writeElement(writer, "creationDate", band.getCreationDate().toString());
+        }
+        writeElement(writer, "numberOfParticipants", band.getNumberOfParticipants());
+        writeElement(writer, "albumsCount", band.getAlbumsCount());
+        writeElement(writer, "genre", band.getGenre());
+        Label label = band.getLabel();
+        if (label != null) {
+            writer.writeStartElement("label");
+            writeElement(writer, "sales", label.getSales());
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    @FunctionalInterface
+    public interface BandWriter {
+        void write(XMLStreamWriter writer, MusicBand band) throws XMLStreamException;
+    }
+}
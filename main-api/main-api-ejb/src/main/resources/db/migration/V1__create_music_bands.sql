@@ -0,0 +1,17 @@
+-- Same shape hbm2ddl used to create, so databases set up before migrations are only baselined.
+-- Unquoted camelCase names fold to lower case, as with Hibernate's default naming.
+CREATE TABLE IF NOT EXISTS music_bands (
+    id                   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                 TEXT NOT NULL,
+    x                    DOUBLE PRECISION,
+    y                    BIGINT NOT NULL CHECK (y <= 945),
+    creationDate         DATE NOT NULL,
+    numberOfParticipants INTEGER NOT NULL CHECK (numberOfParticipants >= 1),
+    albumsCount          INTEGER CHECK (albumsCount >= 1),
+    genre                VARCHAR(50) NOT NULL,
+    sales                DOUBLE PRECISION CHECK (sales > 0),
+    version              BIGINT DEFAULT 0 NOT NULL
+);
+
+-- Tables created by hbm2ddl before optimistic locking have no version column yet
+ALTER TABLE music_bands ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,12 @@
+-- Every sort ends with id, keyset pages seek on (field, id) in both directions
+CREATE INDEX IF NOT EXISTS idx_music_bands_name_id ON music_bands (name, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_x_id ON music_bands (x, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_y_id ON music_bands (y, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_creation_date_id ON music_bands (creationDate, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_participants_id ON music_bands (numberOfParticipants, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_albums_count_id ON music_bands (albumsCount, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_genre_id ON music_bands (genre, id);
+CREATE INDEX IF NOT EXISTS idx_music_bands_sales_id ON music_bands (sales, id);
+
+-- genre filter with a participants sort, and the per-genre participant statistics
+CREATE INDEX IF NOT EXISTS idx_music_bands_genre_participants ON music_bands (genre, numberOfParticipants, id);
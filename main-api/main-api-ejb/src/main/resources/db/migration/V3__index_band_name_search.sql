@@ -0,0 +1,6 @@
+-- contains: lower(name) LIKE '%x%' is served by a trigram GIN index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_music_bands_name_trgm ON music_bands USING gin (lower(name) gin_trgm_ops);
+
+-- startswith: lower(name) LIKE 'x%' is a B-tree range scan, also for one- and two-letter prefixes
+CREATE INDEX IF NOT EXISTS idx_music_bands_name_prefix ON music_bands (lower(name) text_pattern_ops);
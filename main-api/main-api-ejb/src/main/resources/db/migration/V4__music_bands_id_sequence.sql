@@ -0,0 +1,9 @@
+-- Ids come from a sequence Hibernate reserves in blocks of 50 (pooled optimizer), so inserts
+-- can be batched instead of returning an identity per row. A nextval() call owns the block
+-- (value - 49 .. value], the sequence starts one block above the current ids.
+CREATE SEQUENCE IF NOT EXISTS music_bands_seq INCREMENT BY 50 OWNED BY music_bands.id;
+SELECT setval('music_bands_seq', COALESCE((SELECT max(id) FROM music_bands), 0) + 50, false);
+
+-- Plain SQL inserts draw from the same sequence
+ALTER TABLE music_bands ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE music_bands ALTER COLUMN id SET DEFAULT nextval('music_bands_seq');
@@ -0,0 +1,156 @@
+package com.musicband.api.xml;
+
+import com.musicband.api.cache.BandXmlCache;
+import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.Coordinates;
+import com.musicband.api.model.Label;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import com.musicband.codec.jaxrs.XmlCodecProvider;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link BandXml} repeats the JAXB mapping of the models by hand, so every shape of a band has to
+ * come out byte for byte as {@link XmlCodecProvider} writes it.
+ */
+class BandXmlTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    static Stream<MusicBand> bands() {
+        List<MusicBand> bands = new ArrayList<>();
+        bands.add(new MusicBand());
+        bands.add(band(1, "Plain", MusicGenre.POP));
+        bands.add(band(2, "<Tool> & \"friends\" 'live' ]]>", MusicGenre.MATH_ROCK));
+        bands.add(band(3, "Sigur Rós – 東京 🎸\r\n\ttab", MusicGenre.PROGRESSIVE_ROCK));
+
+        MusicBand noLabel = band(4, "No label", MusicGenre.POP);
+        noLabel.setLabel(null);
+        noLabel.setAlbumsCount(null);
+        bands.add(noLabel);
+
+        MusicBand emptyLabel = band(5, "Empty label", MusicGenre.POP);
+        emptyLabel.setLabel(new Label());
+        emptyLabel.setCoordinates(new Coordinates(null, 945L));
+        bands.add(emptyLabel);
+
+        int id = 6;
+        for (double x : new double[]{0.0, -0.0, -1.5, 1e7, 1.0E-5, Double.MAX_VALUE, Double.NaN}) {
+            MusicBand number = band(id++, "Number", MusicGenre.MATH_ROCK);
+            number.setCoordinates(new Coordinates(x, Long.MIN_VALUE));
+            number.setLabel(new Label(x));
+            bands.add(number);
+        }
+        return bands.stream();
+    }
+
+    static Stream<BandsResponse> responses() {
+        List<MusicBand> many = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            many.add(band(i, "Band " + i + " & co", MusicGenre.values()[i % MusicGenre.values().length]));
+        }
+        return Stream.of(
+                new BandsResponse(),
+                new BandsResponse(List.of(), 0L, 0, 0, 20, null, null),
+                new BandsResponse(bands().toList(), 42L, 3, 1, 20, null, null),
+                new BandsResponse(many, 300L, null, null, 300, "eyJpZCI6Mjk5fQ==", null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("bands")
+    void writesBandsLikeJaxb(MusicBand band) throws IOException {
+        assertEquals(jaxb(band, MusicBand.class), streaming(band, MusicBand.class, BandXml::writeBand));
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void writesResponsesLikeJaxb(BandsResponse response) throws IOException {
+        assertEquals(jaxb(response, BandsResponse.class),
+                streaming(response, BandsResponse.class, BandXml::writeBandsResponse));
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void writesCachedFragmentsLikeJaxb(BandsResponse response) throws IOException {
+        BandXmlCache cache = new BandXmlCache();
+        cache.init();
+        if (response.getBands() != null) {
+            for (MusicBand band : response.getBands()) {
+                band.setVersion(0L);
+            }
+        }
+        String expected = jaxb(response, BandsResponse.class);
+
+        // Misses first, then the same page again from the fragments
+        for (int i = 0; i < 2; i++) {
+            assertEquals(expected, streaming(response, BandsResponse.class,
+                    (writer, value) -> BandXml.writeBandsResponse(writer, value, cache::writeBand)));
+        }
+    }
+
+    @Test
+    void writesChangedBandFromItsNewVersion() throws IOException {
+        BandXmlCache cache = new BandXmlCache();
+        cache.init();
+        MusicBand band = band(100, "Before", MusicGenre.POP);
+        band.setVersion(1L);
+        streaming(band, MusicBand.class, cache::writeBand);
+
+        band.setName("After");
+        band.setVersion(2L);
+
+        assertEquals(jaxb(band, MusicBand.class), streaming(band, MusicBand.class, cache::writeBand));
+    }
+
+    static MusicBand band(int id, String name, MusicGenre genre) {
+        MusicBand band = new MusicBand();
+        band.setId(id);
+        band.setName(name);
+        band.setCoordinates(new Coordinates(id + 0.5, (long) id));
+        band.setCreationDate(LocalDate.of(2024, 2, 29).plusDays(id));
+        band.setNumberOfParticipants(id + 1);
+        band.setAlbumsCount(id + 2);
+        band.setGenre(genre);
+        band.setLabel(new Label(id * 1000.25));
+        return band;
+    }
+
+    static <T> String jaxb(T value, Class<T> type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlCodecProvider().writeTo(value, type, type, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static <T> String streaming(T value, Class<T> type, Body<T> body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamingXmlWriter<T>(type) {
+            @Override
+            protected void write(XMLStreamWriter writer, T entity) throws XMLStreamException {
+                body.write(writer, entity);
+            }
+        }.writeTo(value, type, type, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    interface Body<T> {
+        void write(XMLStreamWriter writer, T value) throws XMLStreamException;
+    }
+}
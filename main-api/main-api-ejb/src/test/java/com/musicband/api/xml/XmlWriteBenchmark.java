@@ -0,0 +1,115 @@
+package com.musicband.api.xml;
+
+import com.musicband.api.cache.BandXmlCache;
+import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.model.MusicGenre;
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import com.musicband.codec.jaxrs.XmlCodecProvider;
+import jakarta.ws.rs.core.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one {@code GET /bands} page written through JAXB, the streaming writer and the
+ * streaming writer over cached fragments. Not a test, run it from {@code main-api/main-api-ejb}:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.musicband.api.xml.XmlWriteBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlWriteBenchmark {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private BandsResponse response;
+    private XmlCodecProvider jaxb;
+    private StreamingXmlWriter<BandsResponse> streaming;
+    private StreamingXmlWriter<BandsResponse> cached;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        List<MusicBand> bands = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            MusicBand band = BandXmlTest.band(i, "Band " + i + " & co", MusicGenre.values()[i % 3]);
+            band.setVersion(0L);
+            bands.add(band);
+        }
+        response = new BandsResponse(bands, 10_000L, 10_000 / pageSize, 0, pageSize, null, null);
+
+        BandXmlCache cache = new BandXmlCache();
+        cache.init();
+        jaxb = new XmlCodecProvider();
+        streaming = writer(BandXml::writeBand);
+        cached = writer(cache::writeBand);
+        out = new ByteArrayOutputStream(64 * 1024);
+    }
+
+    @Benchmark
+    public int jaxb() {
+        out.reset();
+        jaxb.writeTo(response, BandsResponse.class, BandsResponse.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        out.reset();
+        streaming.writeTo(response, BandsResponse.class, BandsResponse.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int cachedFragments() throws IOException {
+        out.reset();
+        cached.writeTo(response, BandsResponse.class, BandsResponse.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.size();
+    }
+
+    private static StreamingXmlWriter<BandsResponse> writer(BandXml.BandWriter bands) {
+        return new StreamingXmlWriter<>(BandsResponse.class) {
+            @Override
+            protected void write(XMLStreamWriter writer, BandsResponse value) throws XMLStreamException {
+                BandXml.writeBandsResponse(writer, value, bands);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(XmlWriteBenchmark.class.getSimpleName()).build()).run();
+    }
+}
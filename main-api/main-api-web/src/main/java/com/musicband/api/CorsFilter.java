@@ -19,11 +19,11 @@ public class CorsFilter implements ContainerResponseFilter {
             "GET, POST, PUT, DELETE, PATCH, OPTIONS");
         
         responseContext.getHeaders().add("Access-Control-Allow-Headers",
-            "Origin, Content-Type, Accept, Authorization, X-Requested-With");
+            "Origin, Content-Type, Accept, Authorization, X-Requested-With, If-Match, If-None-Match");
         
         responseContext.getHeaders().add("Access-Control-Max-Age", "3600");
         
         responseContext.getHeaders().add("Access-Control-Expose-Headers",
-            "Content-Length, Content-Type, Location");
+            "Content-Length, Content-Type, Location, ETag");
     }
 }
@@ -0,0 +1,154 @@
+package com.musicband.api.resource;
+
+import com.musicband.api.model.ImportChunkResult;
+import com.musicband.api.model.MusicBand;
+import com.musicband.api.service.MusicBandService;
+import com.musicband.api.service.MusicBandServiceRemote;
+import com.musicband.codec.Lease;
+import com.musicband.codec.XmlCodec;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code POST /bands/import}: pull-parses the request one {@code <musicBand>} at a time and hands
+ * them to the service in chunks, writing the outcome of each chunk as soon as it is known.
+ * Only one chunk of bands is held at a time, whatever the size of the upload.
+ *
+ * <pre>
+ * &lt;importSummary&gt;
+ *   &lt;band index="1" id="1201"/&gt;
+ *   &lt;error index="2"&gt;numberOfParticipants: ...&lt;/error&gt;
+ *   &lt;progress processed="500" created="499" errors="1"/&gt;   (with progress=true)
+ *   ...
+ *   &lt;totalProcessed/&gt;&lt;successCount/&gt;&lt;errorCount/&gt;
+ * &lt;/importSummary&gt;
+ * </pre>
+ */
+final class BandImport implements StreamingOutput {
+
+    private final InputStream body;
+    private final MusicBandServiceRemote service;
+    private final boolean progress;
+
+    private final List<MusicBand> chunk = new ArrayList<>(MusicBandService.BULK_CHUNK_SIZE);
+
+    private int processed;
+    private int created;
+    private int failed;
+
+    BandImport(InputStream body, MusicBandServiceRemote service, boolean progress) {
+        this.body = body;
+        this.service = service;
+        this.progress = progress;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        try {
+            XMLStreamWriter writer = XmlCodec.outputFactory().createXMLStreamWriter(output, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("importSummary");
+
+            try {
+                importAll(writer, output);
+            } catch (XMLStreamException | JAXBException e) {
+                // Everything before the malformed part is still imported and reported
+                if (!chunk.isEmpty()) {
+                    importChunk(writer, output);
+                }
+                writer.writeStartElement("error");
+                writer.writeCharacters("Invalid XML format: " + describe(e));
+                writer.writeEndElement();
+            }
+
+            writeElement(writer, "totalProcessed", processed);
+            writeElement(writer, "successCount", created);
+            writeElement(writer, "errorCount", failed);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void importAll(XMLStreamWriter writer, OutputStream output) throws XMLStreamException, JAXBException, IOException {
+        XmlCodec<MusicBand> codec = XmlCodec.of(MusicBand.class);
+        XMLStreamReader reader = XmlCodec.createReader(body);
+
+        try (Lease<Unmarshaller> unmarshaller = codec.unmarshaller()) {
+            while (reader.hasNext()) {
+                if (reader.getEventType() == XMLStreamConstants.START_ELEMENT && codec.getRootName().equals(reader.getLocalName())) {
+                    // Leaves the reader after </musicBand>
+                    chunk.add(unmarshaller.get().unmarshal(reader, MusicBand.class).getValue());
+                    if (chunk.size() == MusicBandService.BULK_CHUNK_SIZE) {
+                        importChunk(writer, output);
+                    }
+                    continue;
+                }
+                reader.next();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(writer, output);
+        }
+        reader.close();
+    }
+
+    private void importChunk(XMLStreamWriter writer, OutputStream output)
+            throws XMLStreamException, IOException {
+        ImportChunkResult result = service.importBands(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            String index = String.valueOf(processed + i + 1);
+            Integer id = result.getIds().get(i);
+            if (id != null) {
+                writer.writeEmptyElement("band");
+                writer.writeAttribute("index", index);
+                writer.writeAttribute("id", id.toString());
+                created++;
+            } else {
+                writer.writeStartElement("error");
+                writer.writeAttribute("index", index);
+                writer.writeCharacters(result.getErrors().get(i));
+                writer.writeEndElement();
+                failed++;
+            }
+        }
+        processed += chunk.size();
+        chunk.clear();
+
+        if (progress) {
+            writer.writeEmptyElement("progress");
+            writer.writeAttribute("processed", String.valueOf(processed));
+            writer.writeAttribute("created", String.valueOf(created));
+            writer.writeAttribute("errors", String.valueOf(failed));
+        }
+        writer.flush();
+        output.flush();
+    }
+
+    private static String describe(Exception e) {
+        if (e.getMessage() != null) {
+            return e.getMessage();
+        }
+        Throwable cause = e instanceof JAXBException ? ((JAXBException) e).getLinkedException() : e.getCause();
+        return cause != null ? cause.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, int value) throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(String.valueOf(value));
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,33 @@
+package com.musicband.api.resource;
+
+import com.musicband.api.cache.BandXmlCache;
+import com.musicband.api.model.BandsResponse;
+import com.musicband.api.xml.BandXml;
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+
+@Provider
+@Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+public class BandsResponseXmlWriter extends StreamingXmlWriter<BandsResponse> {
+
+    @Inject
+    private BandXmlCache bandXmlCache;
+
+    public BandsResponseXmlWriter() {
+        super(BandsResponse.class);
+    }
+
+    @Override
+    protected void write(XMLStreamWriter writer, BandsResponse response) throws XMLStreamException {
+        // Cached fragments hold whole bands, projected pages are written as they are
+        BandXml.writeBandsResponse(writer, response,
+                response.getFields() == null ? bandXmlCache::writeBand : BandXml::writeBand);
+    }
+}
@@ -0,0 +1,79 @@
+package com.musicband.api.resource;
+
+import com.musicband.api.model.BandsResponse;
+import com.musicband.api.model.MusicBand;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entity tags for band representations.
+ * A single band is tagged strongly by id, version and the media type it is written as, a page weakly by
+ * the ids and versions it contains, the fields it was projected to and the media type. XML, JSON and CBOR
+ * bytes differ, so each carries its own tag; If-Match only compares id and version.
+ */
+final class EntityTags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final Set<String> SUBTYPES = Set.of("xml", "json", "cbor");
+    private static final Pattern TAG = Pattern.compile("(W/)?\"([^\"]*)\"");
+
+    private EntityTags() {
+    }
+
+    static EntityTag of(MusicBand band, MediaType type) {
+        return of(band.getId(), band.getVersion(), type);
+    }
+
+    static EntityTag of(Integer id, Long version, MediaType type) {
+        return new EntityTag(id + "-" + version + "-" + type.getSubtype());
+    }
+
+    static EntityTag of(BandsResponse response, MediaType type) {
+        long hash = FNV_OFFSET;
+        if (response.getBands() != null) {
+            for (MusicBand band : response.getBands()) {
+                hash = mix(hash, band.getId());
+                hash = mix(hash, band.getVersion() != null ? band.getVersion() : -1);
+            }
+        }
+        hash = mix(hash, response.getTotalElements() != null ? response.getTotalElements() : -1);
+        hash = mix(hash, response.getNextCursor() != null ? response.getNextCursor().hashCode() : 0);
+        hash = mix(hash, response.getFields() != null ? response.getFields().hashCode() : 0);
+        hash = mix(hash, type.getSubtype().hashCode());
+        return new EntityTag(Long.toHexString(hash), true);
+    }
+
+    /**
+     * Whether an If-Match value holds {@code *} or a strong tag of any representation of the band at
+     * {@code version}. Weak tags never match, as the strong comparison requires.
+     */
+    static boolean matches(String ifMatch, Integer id, Long version) {
+        if (ifMatch.trim().equals("*")) {
+            return true;
+        }
+        String prefix = id + "-" + version + "-";
+        Matcher tag = TAG.matcher(ifMatch);
+        while (tag.find()) {
+            String value = tag.group(2);
+            if (tag.group(1) == null && value.startsWith(prefix)
+                    && SUBTYPES.contains(value.substring(prefix.length()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
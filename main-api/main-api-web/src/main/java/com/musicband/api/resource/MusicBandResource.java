@@ -2,13 +2,28 @@ package com.musicband.api.resource;
 
 import com.musicband.api.model.*;
 import com.musicband.api.model.Error;
+import com.musicband.api.exception.BandVersionConflictException;
+import com.musicband.api.export.BandExporter;
+import com.musicband.api.ingest.BandCopyImporter;
+import com.musicband.api.repository.query.BoundQuery;
 import com.musicband.api.service.MusicBandServiceRemote;
+import com.musicband.codec.RootScan;
+import com.musicband.codec.Validators;
+import com.musicband.codec.XmlCodec;
+import com.musicband.codec.jaxrs.CborProvider;
+import com.musicband.codec.jaxrs.NegotiatedTypes;
 import jakarta.ejb.EJB;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import java.io.InputStream;
 import java.util.*;
 
 @Path("/bands")
@@ -17,13 +32,23 @@ public class MusicBandResource {
     @EJB
     private MusicBandServiceRemote service;
 
+    @EJB
+    private BandExporter exporter;
+
+    @EJB
+    private BandCopyImporter copyImporter;
+
     @GET
-    @Produces(MediaType.APPLICATION_XML)
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
     public Response getBands(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("20") int size,
             @QueryParam("sort") List<String> sort,
-            @QueryParam("filter") List<String> filter) {
+            @QueryParam("filter") List<String> filter,
+            @QueryParam("fields") List<String> fields,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("totalElements") @DefaultValue("exact") String totalElements,
+            @Context Request request, @Context HttpHeaders headers) {
 
         try {
             if (page < 0) {
@@ -36,6 +61,8 @@ public class MusicBandResource {
                         "Page size must be between 1 and 100");
             }
 
+            TotalElementsMode totalMode = TotalElementsMode.fromParameter(totalElements);
+
             Map<String, String> filters = new HashMap<>();
             if (filter != null) {
                 for (int i = 0; i < filter.size(); i++) {
@@ -43,8 +70,19 @@ public class MusicBandResource {
                 }
             }
 
-            BandsResponse response = service.getAllBands(page, size, sort, filters);
-            return Response.ok(response).build();
+            if (cursor != null) {
+                if (page != 0) {
+                    return createErrorResponse(422, "Validation failed",
+                            "Page number cannot be combined with cursor");
+                }
+                BandsResponse response = service.getBandsAfter(cursor, size, sort, filters, fields, totalMode);
+                MediaType type = negotiated(headers);
+                return conditionalOk(request, response, EntityTags.of(response, type), type);
+            }
+
+            BandsResponse response = service.getAllBands(page, size, sort, filters, fields, totalMode);
+            MediaType type = negotiated(headers);
+            return conditionalOk(request, response, EntityTags.of(response, type), type);
 
         } catch (IllegalArgumentException e) {
             return createErrorResponse(422, "Validation failed", e.getMessage());
@@ -56,45 +94,37 @@ public class MusicBandResource {
 
     @POST
     @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
-    public Response createBand(String xmlBody) {
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response createBand(String xmlBody, @Context HttpHeaders headers) {
         try {
             if (xmlBody == null || xmlBody.trim().isEmpty()) {
                 return createErrorResponse(400, "Invalid request body",
                         "Request body cannot be null or empty");
             }
 
-            int count = countOccurrences(xmlBody, "<musicBand>");
-            if (count > 1) {
+            // One pass counts the <musicBand> elements and binds the first
+            RootScan<MusicBand> scan = XmlCodec.of(MusicBand.class).scan(new java.io.StringReader(xmlBody));
+            if (scan.getCount() > 1) {
                 return createErrorResponse(422, "Multiple bands not allowed",
                         "Single band creation endpoint accepts only one musicBand element. ");
             }
-            if (count == 0) {
+            if (scan.getCount() == 0) {
                 return createErrorResponse(400, "Invalid request body",
                         "Request body must contain a <musicBand> element");
             }
+            MusicBand band = scan.getFirst();
 
-            jakarta.xml.bind.JAXBContext jaxbContext = jakarta.xml.bind.JAXBContext.newInstance(MusicBand.class);
-            jakarta.xml.bind.Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            java.io.StringReader reader = new java.io.StringReader(xmlBody);
-            MusicBand band = (MusicBand) unmarshaller.unmarshal(reader);
-
-            jakarta.validation.ValidatorFactory factory = jakarta.validation.Validation.buildDefaultValidatorFactory();
-            jakarta.validation.Validator validator = factory.getValidator();
-            Set<jakarta.validation.ConstraintViolation<MusicBand>> violations = validator.validate(band);
-
-            if (!violations.isEmpty()) {
-                String violationMessages = violations.stream()
-                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
-                        .reduce((a, b) -> a + "; " + b)
-                        .orElse("Validation failed");
+            String violationMessages = Validators.describeViolations(band);
+            if (violationMessages != null) {
                 return createErrorResponse(422, "Validation failed", violationMessages);
             }
 
             MusicBand created = service.createBand(band);
-            return Response.status(Response.Status.CREATED).entity(created).build();
+            MediaType type = negotiated(headers);
+            return Response.status(Response.Status.CREATED).entity(created).type(type)
+                    .tag(EntityTags.of(created, type)).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
 
-        } catch (jakarta.xml.bind.JAXBException e) {
+        } catch (jakarta.xml.bind.JAXBException | javax.xml.stream.XMLStreamException e) {
             return createErrorResponse(400, "Invalid XML format",
                     "Failed to parse XML: " + e.getMessage());
         } catch (IllegalArgumentException e) {
@@ -105,20 +135,39 @@ public class MusicBandResource {
         }
     }
 
-    private int countOccurrences(String text, String pattern) {
-        int count = 0;
-        int index = 0;
-        while ((index = text.indexOf(pattern, index)) != -1) {
-            count++;
-            index += pattern.length();
+    // JSON and CBOR bodies hold one object, there is nothing to count
+    @POST
+    @Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response createBand(MusicBand band, @Context HttpHeaders headers) {
+        try {
+            if (band == null) {
+                return createErrorResponse(400, "Invalid request body",
+                        "Request body cannot be null or empty");
+            }
+
+            String violationMessages = Validators.describeViolations(band);
+            if (violationMessages != null) {
+                return createErrorResponse(422, "Validation failed", violationMessages);
+            }
+
+            MusicBand created = service.createBand(band);
+            MediaType type = negotiated(headers);
+            return Response.status(Response.Status.CREATED).entity(created).type(type)
+                    .tag(EntityTags.of(created, type)).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(422, "Validation failed", e.getMessage());
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
         }
-        return count;
     }
 
     @POST
     @Path("/bulk")
-    @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
     public Response createBands(BulkBandsRequest bulkRequest) {
         try {
             if (bulkRequest == null || bulkRequest.getBands() == null || bulkRequest.getBands().isEmpty()) {
@@ -126,32 +175,67 @@ public class MusicBandResource {
                         "Request body must contain at least one band");
             }
 
-            List<MusicBand> createdBands = new ArrayList<>();
-            List<String> errors = new ArrayList<>();
+            BulkBandsResponse response = service.createBands(bulkRequest.getBands());
 
-            for (int i = 0; i < bulkRequest.getBands().size(); i++) {
-                MusicBand band = bulkRequest.getBands().get(i);
-                try {
-                    MusicBand created = service.createBand(band);
-                    createdBands.add(created);
-                } catch (Exception e) {
-                    errors.add("Band #" + (i + 1) + ": " + e.getMessage());
-                }
+            if (response.getSuccessCount() == 0) {
+                return Response.status(422).entity(response).build();
             }
 
-            BulkBandsResponse response = new BulkBandsResponse();
-            response.setSuccessful(createdBands);
-            response.setErrors(errors);
-            response.setTotalProcessed(bulkRequest.getBands().size());
-            response.setSuccessCount(createdBands.size());
-            response.setErrorCount(errors.size());
+            return Response.status(Response.Status.CREATED).entity(response).build();
 
-            if (createdBands.isEmpty()) {
-                return Response.status(422).entity(response).build();
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/export")
+    @Produces({MediaType.APPLICATION_XML, "text/csv"})
+    public Response exportBands(
+            @QueryParam("sort") List<String> sort,
+            @QueryParam("filter") List<String> filter,
+            @QueryParam("format") String format) {
+        try {
+            ExportFormat exportFormat = ExportFormat.fromParameter(format);
+
+            Map<String, String> filters = new HashMap<>();
+            if (filter != null) {
+                for (int i = 0; i < filter.size(); i++) {
+                    filters.put("filter" + i, filter.get(i));
+                }
             }
 
-            return Response.status(Response.Status.CREATED).entity(response).build();
+            BoundQuery bound = exporter.prepare(sort, filters);
+            StreamingOutput body = output -> exporter.write(bound, exportFormat, output);
+            return Response.ok(body, exportFormat.getMediaType())
+                    .header("Content-Disposition",
+                            "attachment; filename=\"bands." + exportFormat.name().toLowerCase() + "\"")
+                    .build();
+
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(422, "Validation failed", e.getMessage());
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes({MediaType.APPLICATION_XML, "text/csv"})
+    @Produces(MediaType.APPLICATION_XML)
+    public Response importBands(InputStream body,
+                                @QueryParam("progress") @DefaultValue("false") boolean progress,
+                                @QueryParam("format") String format) {
+        try {
+            if (ExportFormat.fromParameter(format) == ExportFormat.CSV) {
+                return Response.ok(copyImporter.importCsv(body)).build();
+            }
+            return Response.ok(new BandImport(body, service, progress)).build();
 
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(422, "Validation failed", e.getMessage());
         } catch (Exception e) {
             return createErrorResponse(500, "Internal server error",
                     "An unexpected error occurred: " + e.getMessage());
@@ -160,8 +244,9 @@ public class MusicBandResource {
 
     @GET
     @Path("/{id}")
-    @Produces(MediaType.APPLICATION_XML)
-    public Response getBandById(@PathParam("id") Integer id) {
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getBandById(@PathParam("id") Integer id,
+                                @Context Request request, @Context HttpHeaders headers) {
         try {
             if (id == null || id < 1) {
                 return createErrorResponse(422, "Validation failed",
@@ -175,7 +260,8 @@ public class MusicBandResource {
                         "MusicBand with id " + id + " not found");
             }
 
-            return Response.ok(band).build();
+            MediaType type = negotiated(headers);
+            return conditionalOk(request, band, EntityTags.of(band, type), type);
 
         } catch (Exception e) {
             return createErrorResponse(500, "Internal server error",
@@ -185,9 +271,10 @@ public class MusicBandResource {
 
     @PUT
     @Path("/{id}")
-    @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
-    public Response updateBand(@PathParam("id") Integer id, @Valid MusicBand band) {
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response updateBand(@PathParam("id") Integer id, @Valid MusicBand band,
+                               @Context HttpHeaders headers) {
         try {
             if (id == null || id < 1) {
                 return createErrorResponse(422, "Validation failed",
@@ -199,15 +286,20 @@ public class MusicBandResource {
                         "Request body cannot be null");
             }
 
-            MusicBand updated = service.updateBand(id, band);  
+            Long expectedVersion = expectedVersion(id, headers);
+            MusicBand updated = service.updateBand(id, band, expectedVersion);
 
             if (updated == null) {  
                 return createErrorResponse(404, "Resource not found",
                         "MusicBand with id " + id + " not found");
             }
 
-            return Response.ok(updated).build();
+            MediaType type = negotiated(headers);
+            return Response.ok(updated, type).tag(EntityTags.of(updated, type))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
 
+        } catch (BandVersionConflictException e) {
+            return preconditionFailed(e.getBandId(), e.getCurrentVersion(), headers);
         } catch (IllegalArgumentException e) {
             return createErrorResponse(422, "Validation failed", e.getMessage());
         } catch (Exception e) {
@@ -218,9 +310,10 @@ public class MusicBandResource {
 
     @PATCH
     @Path("/{id}")
-    @Consumes(MediaType.APPLICATION_XML)
-    @Produces(MediaType.APPLICATION_XML)
-    public Response patchBand(@PathParam("id") Integer id, MusicBand patchData) {
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response patchBand(@PathParam("id") Integer id, MusicBand patchData,
+                              @Context HttpHeaders headers) {
         try {
             if (id == null || id < 1) {
                 return createErrorResponse(422, "Validation failed",
@@ -232,15 +325,20 @@ public class MusicBandResource {
                         "Request body cannot be null");
             }
 
-            MusicBand patched = service.patchBand(id, patchData);  
+            Long expectedVersion = expectedVersion(id, headers);
+            MusicBand patched = service.patchBand(id, patchData, expectedVersion);
 
             if (patched == null) {  
                 return createErrorResponse(404, "Resource not found",
                         "MusicBand with id " + id + " not found");
             }
 
-            return Response.ok(patched).build();
+            MediaType type = negotiated(headers);
+            return Response.ok(patched, type).tag(EntityTags.of(patched, type))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
 
+        } catch (BandVersionConflictException e) {
+            return preconditionFailed(e.getBandId(), e.getCurrentVersion(), headers);
         } catch (IllegalArgumentException e) {
             return createErrorResponse(422, "Validation failed", e.getMessage());
         } catch (Exception e) {
@@ -251,15 +349,16 @@ public class MusicBandResource {
 
     @DELETE
     @Path("/{id}")
-    @Produces(MediaType.APPLICATION_XML)
-    public Response deleteBand(@PathParam("id") Integer id) {
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response deleteBand(@PathParam("id") Integer id, @Context HttpHeaders headers) {
         try {
             if (id == null || id < 1) {
                 return createErrorResponse(422, "Validation failed",
                         "Band ID must be a positive integer");
             }
 
-            boolean deleted = service.deleteBand(id);
+            Long expectedVersion = expectedVersion(id, headers);
+            boolean deleted = service.deleteBand(id, expectedVersion);
 
             if (!deleted) {
                 return createErrorResponse(404, "Resource not found",
@@ -268,6 +367,58 @@ public class MusicBandResource {
 
             return Response.noContent().build();
 
+        } catch (BandVersionConflictException e) {
+            return preconditionFailed(e.getBandId(), e.getCurrentVersion(), headers);
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/aggregate")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response aggregateBands(
+            @QueryParam("groupBy") List<String> groupBy,
+            @QueryParam("metric") List<String> metric,
+            @QueryParam("filter") List<String> filter) {
+        try {
+            Map<String, String> filters = new HashMap<>();
+            if (filter != null) {
+                for (int i = 0; i < filter.size(); i++) {
+                    filters.put("filter" + i, filter.get(i));
+                }
+            }
+
+            AggregateResponse response = service.aggregateBands(groupBy, metric, filters);
+            return Response.ok(response).build();
+
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(422, "Validation failed", e.getMessage());
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    @GET
+    @Path("/suggest")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response suggestBands(
+            @QueryParam("prefix") String prefix,
+            @QueryParam("limit") @DefaultValue("10") int limit) {
+        try {
+            if (prefix == null || prefix.isBlank()) {
+                return createErrorResponse(422, "Validation failed", "Prefix cannot be empty");
+            }
+
+            if (limit < 1 || limit > 50) {
+                return createErrorResponse(422, "Validation failed", "Limit must be between 1 and 50");
+            }
+
+            SuggestResponse response = service.suggestBands(prefix, limit);
+            return Response.ok(response).build();
+
         } catch (Exception e) {
             return createErrorResponse(500, "Internal server error",
                     "An unexpected error occurred: " + e.getMessage());
@@ -276,17 +427,80 @@ public class MusicBandResource {
 
     @GET
     @Path("/statistics/average-participants")
-    @Produces(MediaType.APPLICATION_XML)
-    public Response getAverageParticipants() {
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getAverageParticipants(@QueryParam("genre") String genre) {
         try {
-            AverageParticipantsResponse response = service.getAverageParticipants();
+            MusicGenre musicGenre = genre != null ? MusicGenre.valueOf(genre.trim().toUpperCase()) : null;
+            AverageParticipantsResponse response = service.getAverageParticipants(musicGenre);
             return Response.ok(response).build();
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(422, "Validation failed",
+                    "Unknown genre: " + genre + ". Allowed values: " + Arrays.toString(MusicGenre.values()));
         } catch (Exception e) {
             return createErrorResponse(500, "Internal server error",
                     "An unexpected error occurred: " + e.getMessage());
         }
     }
 
+    @GET
+    @Path("/statistics/caches")
+    @Produces({NegotiatedTypes.XML, NegotiatedTypes.JSON, NegotiatedTypes.CBOR})
+    public Response getCacheStatistics() {
+        try {
+            CacheStatisticsResponse response = service.getCacheStatistics();
+            return Response.ok(response).build();
+        } catch (Exception e) {
+            return createErrorResponse(500, "Internal server error",
+                    "An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Preconditions are checked against the tag before anything is marshalled,
+     * a matching If-None-Match only costs the 304 status line. The tag names the media type,
+     * so the type is fixed here rather than left to the container.
+     */
+    private Response conditionalOk(Request request, Object entity, EntityTag tag, MediaType type) {
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        return Response.ok(entity, type).tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    private static MediaType negotiated(HttpHeaders headers) {
+        return NegotiatedTypes.select(headers.getAcceptableMediaTypes());
+    }
+
+    /*
+     * If-Match is evaluated against the current version, the service then repeats the check in its
+     * transaction and the version column catches writes that commit in between. No row is locked.
+     * A tag from any of the representations will do, they differ only in the media type suffix.
+     */
+    private Long expectedVersion(Integer id, HttpHeaders headers) {
+        String ifMatch = headers.getHeaderString(HttpHeaders.IF_MATCH);
+        if (ifMatch == null) {
+            return null;
+        }
+
+        MusicBand current = service.getBandById(id);
+        if (current == null || !EntityTags.matches(ifMatch, id, current.getVersion())) {
+            throw new BandVersionConflictException(id, current != null ? current.getVersion() : null);
+        }
+        return current.getVersion();
+    }
+
+    private Response preconditionFailed(Integer id, Long currentVersion, HttpHeaders headers) {
+        Error error = new Error(412, "Precondition failed",
+                "MusicBand with id " + id + " has been modified");
+        Response.ResponseBuilder response = Response.status(Response.Status.PRECONDITION_FAILED).entity(error);
+        if (currentVersion != null) {
+            MediaType type = negotiated(headers);
+            response.type(type).tag(EntityTags.of(id, currentVersion, type));
+        }
+        return response.build();
+    }
+
     private Response createErrorResponse(int code, String message, String details) {
         Error error = new Error(code, message, details);
         return Response.status(code).entity(error).build();
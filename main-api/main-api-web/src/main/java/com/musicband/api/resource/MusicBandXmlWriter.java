@@ -0,0 +1,30 @@
+package com.musicband.api.resource;
+
+import com.musicband.api.cache.BandXmlCache;
+import com.musicband.api.model.MusicBand;
+import com.musicband.codec.jaxrs.StreamingXmlWriter;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+
+@Provider
+@Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+public class MusicBandXmlWriter extends StreamingXmlWriter<MusicBand> {
+
+    @Inject
+    private BandXmlCache bandXmlCache;
+
+    public MusicBandXmlWriter() {
+        super(MusicBand.class);
+    }
+
+    @Override
+    protected void write(XMLStreamWriter writer, MusicBand band) throws XMLStreamException {
+        bandXmlCache.writeBand(writer, band);
+    }
+}
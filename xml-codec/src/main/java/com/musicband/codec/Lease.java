@@ -0,0 +1,31 @@
+package com.musicband.codec;
+
+/**
+ * A pooled (un)marshaller held by one thread until closed. It must not be used after
+ * {@link #close()}, when it goes back to the pool.
+ */
+public final class Lease<E> implements AutoCloseable {
+
+    private final Pool<E> pool;
+    private E item;
+
+    Lease(Pool<E> pool, E item) {
+        this.pool = pool;
+        this.item = item;
+    }
+
+    public E get() {
+        if (item == null) {
+            throw new IllegalStateException("Lease already closed");
+        }
+        return item;
+    }
+
+    @Override
+    public void close() {
+        if (item != null) {
+            pool.release(item);
+            item = null;
+        }
+    }
+}
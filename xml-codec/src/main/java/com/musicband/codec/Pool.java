@@ -0,0 +1,28 @@
+package com.musicband.codec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Bounded set of idle instances of a non-thread-safe object. Borrowing never blocks: when none
+ * is idle a new one is created, and instances returned to a full pool are dropped.
+ */
+final class Pool<E> {
+
+    private final ArrayBlockingQueue<E> idle;
+    private final Supplier<E> factory;
+
+    Pool(int capacity, Supplier<E> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    E borrow() {
+        E item = idle.poll();
+        return item != null ? item : factory.get();
+    }
+
+    void release(E item) {
+        idle.offer(item);
+    }
+}
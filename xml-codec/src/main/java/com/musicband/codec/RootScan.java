@@ -0,0 +1,24 @@
+package com.musicband.codec;
+
+/**
+ * Result of {@link XmlCodec#scan}: the first root element found in the document and how many
+ * there were in total.
+ */
+public final class RootScan<T> {
+
+    private final T first;
+    private final int count;
+
+    RootScan(T first, int count) {
+        this.first = first;
+        this.count = count;
+    }
+
+    public T getFirst() {
+        return first;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
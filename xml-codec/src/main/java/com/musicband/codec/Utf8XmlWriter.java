@@ -0,0 +1,357 @@
+package com.musicband.codec;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Minimal {@link XMLStreamWriter} encoding UTF-8 straight into a byte buffer, for the hand-written
+ * serializers. It escapes and collapses empty elements to {@code <a/>} like the JAXB RI output,
+ * so both produce the same bytes. Namespaces, comments and processing instructions are not
+ * supported. {@link #close()} flushes but leaves the stream open.
+ */
+public final class Utf8XmlWriter implements XMLStreamWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private String[] elements = new String[16];
+    private int depth;
+    // '<name' was written and may still become '<name/>'
+    private boolean startTagOpen;
+    private boolean emptyElementOpen;
+
+    public Utf8XmlWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        closeStartTag();
+        if (depth == elements.length) {
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        elements[depth++] = localName;
+        write('<');
+        writeAscii(localName);
+        startTagOpen = true;
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        closeStartTag();
+        write('<');
+        writeAscii(localName);
+        emptyElementOpen = true;
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        if (!startTagOpen && !emptyElementOpen) {
+            throw new XMLStreamException("Attribute '" + localName + "' outside of a start tag");
+        }
+        write(' ');
+        writeAscii(localName);
+        write('=');
+        write('"');
+        writeEscaped(value, true);
+        write('"');
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        if (emptyElementOpen) {
+            closeStartTag();
+        }
+        if (depth == 0) {
+            throw new XMLStreamException("No element to end");
+        }
+        String name = elements[--depth];
+        elements[depth] = null;
+        if (startTagOpen) {
+            write('/');
+            write('>');
+            startTagOpen = false;
+            return;
+        }
+        write('<');
+        write('/');
+        writeAscii(name);
+        write('>');
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (depth > 0) {
+            writeEndElement();
+        }
+        closeStartTag();
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        closeStartTag();
+        writeEscaped(text, false);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        closeStartTag();
+        write('&');
+        writeAscii(name);
+        write(';');
+    }
+
+    /**
+     * Writes markup that is already encoded, e.g. a fragment written earlier by another instance.
+     */
+    public void writeRaw(byte[] markup) throws XMLStreamException {
+        closeStartTag();
+        if (markup.length > BUFFER_SIZE - position) {
+            try {
+                out.write(buffer, 0, position);
+                position = 0;
+                if (markup.length > BUFFER_SIZE) {
+                    out.write(markup);
+                    return;
+                }
+            } catch (IOException e) {
+                throw new XMLStreamException(e);
+            }
+        }
+        System.arraycopy(markup, 0, buffer, position, markup.length);
+        position += markup.length;
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        writeStartDocument("UTF-8", "1.0");
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        writeStartDocument("UTF-8", version);
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        if (!"UTF-8".equalsIgnoreCase(encoding)) {
+            throw new XMLStreamException("Only UTF-8 is supported, not " + encoding);
+        }
+        writeAscii("<?xml version=\"" + version + "\" encoding=\"UTF-8\"?>");
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        try {
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        closeStartTag();
+        flush();
+    }
+
+    private void closeStartTag() throws XMLStreamException {
+        if (emptyElementOpen) {
+            write('/');
+            write('>');
+            emptyElementOpen = false;
+        } else if (startTagOpen) {
+            write('>');
+            startTagOpen = false;
+        }
+    }
+
+    // Element and attribute names of the mapped types are ASCII
+    private void writeAscii(String value) throws XMLStreamException {
+        for (int i = 0; i < value.length(); i++) {
+            write(value.charAt(i));
+        }
+    }
+
+    private void writeEscaped(String text, boolean attribute) throws XMLStreamException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '&':
+                        writeAscii("&amp;");
+                        break;
+                    case '<':
+                        writeAscii("&lt;");
+                        break;
+                    case '>':
+                        writeAscii("&gt;");
+                        break;
+                    case '\r':
+                        writeAscii("&#13;");
+                        break;
+                    case '\n':
+                        // Kept in text, an attribute value would normalize it to a space
+                        if (attribute) {
+                            writeAscii("&#10;");
+                        } else {
+                            write(c);
+                        }
+                        break;
+                    case '"':
+                        if (attribute) {
+                            writeAscii("&quot;");
+                        } else {
+                            write(c);
+                        }
+                        break;
+                    default:
+                        write(c);
+                }
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as String.getBytes does
+                write('?');
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void write(int b) throws XMLStreamException {
+        if (position == BUFFER_SIZE) {
+            try {
+                out.write(buffer, 0, position);
+            } catch (IOException e) {
+                throw new XMLStreamException(e);
+            }
+            position = 0;
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public String getPrefix(String uri) {
+        return null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        throw unsupported();
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException("Unsupported property " + name);
+    }
+
+    private static XMLStreamException unsupported() {
+        return new XMLStreamException("Namespaces, comments, PIs, CDATA and DTDs are not supported");
+    }
+}
@@ -0,0 +1,46 @@
+package com.musicband.codec;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import java.util.Set;
+
+/**
+ * One {@link Validator} for code that is not injected. Building a factory bootstraps the provider
+ * and scans constraint metadata again, so it is done once; the validator itself is thread-safe.
+ */
+public final class Validators {
+
+    private Validators() {
+    }
+
+    public static Validator get() {
+        return Holder.VALIDATOR;
+    }
+
+    /**
+     * All violations of {@code bean} as {@code path: message; ...}, or null when it is valid.
+     */
+    public static <T> String describeViolations(T bean) {
+        return describeViolations(get(), bean);
+    }
+
+    /**
+     * Same as {@link #describeViolations(Object)} with a given validator, e.g. the injected one.
+     */
+    public static <T> String describeViolations(Validator validator, T bean) {
+        Set<ConstraintViolation<T>> violations = validator.validate(bean);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .reduce((a, b) -> a + "; " + b)
+                .orElse("Validation failed");
+    }
+
+    private static final class Holder {
+        private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+}
@@ -0,0 +1,167 @@
+package com.musicband.codec;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.PropertyException;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.beans.Introspector;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JAXB binding of one root type. Building a {@link JAXBContext} introspects the whole class graph,
+ * so there is one context per type for the life of the application; marshallers and unmarshallers
+ * are cheap to keep but not thread-safe, so each call borrows one from a bounded pool.
+ */
+public final class XmlCodec<T> {
+
+    private static final Map<Class<?>, XmlCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    private static final int POOL_SIZE = Integer.getInteger("xml.codec.pool.size",
+            2 * Runtime.getRuntime().availableProcessors());
+
+    // Configured once, creating readers and writers from them is thread-safe
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private final Class<T> type;
+    private final String rootName;
+    private final JAXBContext context;
+    private final Pool<Marshaller> marshallers;
+    private final Pool<Unmarshaller> unmarshallers;
+
+    private XmlCodec(Class<T> type) {
+        this.type = type;
+        this.rootName = rootName(type);
+        try {
+            this.context = JAXBContext.newInstance(type);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Cannot create JAXB context for " + type.getName(), e);
+        }
+        this.marshallers = new Pool<>(POOL_SIZE, () -> create(context::createMarshaller));
+        this.unmarshallers = new Pool<>(POOL_SIZE, () -> create(context::createUnmarshaller));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> XmlCodec<T> of(Class<T> type) {
+        return (XmlCodec<T>) CODECS.computeIfAbsent(type, XmlCodec::new);
+    }
+
+    /**
+     * StAX reader with DTDs and external entities disabled.
+     */
+    public static XMLStreamReader createReader(InputStream input) throws XMLStreamException {
+        return INPUT_FACTORY.createXMLStreamReader(input);
+    }
+
+    public static XMLStreamReader createReader(Reader input) throws XMLStreamException {
+        return INPUT_FACTORY.createXMLStreamReader(input);
+    }
+
+    public static XMLOutputFactory outputFactory() {
+        return OUTPUT_FACTORY;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public String getRootName() {
+        return rootName;
+    }
+
+    /**
+     * A marshaller writing a standalone document in UTF-8, or with {@code fragment} no XML
+     * declaration, for embedding into a document written by the caller.
+     */
+    public Lease<Marshaller> marshaller(boolean fragment) throws PropertyException {
+        Marshaller marshaller = marshallers.borrow();
+        // Reset what earlier borrowers may have changed
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+        return new Lease<>(marshallers, marshaller);
+    }
+
+    public Lease<Unmarshaller> unmarshaller() {
+        return new Lease<>(unmarshallers, unmarshallers.borrow());
+    }
+
+    public T read(InputStream input) throws JAXBException, XMLStreamException {
+        XMLStreamReader reader = createReader(input);
+        try (Lease<Unmarshaller> unmarshaller = unmarshaller()) {
+            return unmarshaller.get().unmarshal(reader, type).getValue();
+        } finally {
+            reader.close();
+        }
+    }
+
+    public void write(T value, OutputStream output) throws JAXBException {
+        try (Lease<Marshaller> marshaller = marshaller(false)) {
+            marshaller.get().marshal(value, output);
+        }
+    }
+
+    /**
+     * Reads the whole document once, binding the first element named like the root of this type
+     * and only counting the others, wherever they are nested.
+     */
+    public RootScan<T> scan(Reader input) throws JAXBException, XMLStreamException {
+        XMLStreamReader reader = createReader(input);
+        try (Lease<Unmarshaller> unmarshaller = unmarshaller()) {
+            T first = null;
+            int count = 0;
+            while (reader.hasNext()) {
+                if (reader.getEventType() == XMLStreamConstants.START_ELEMENT && rootName.equals(reader.getLocalName())) {
+                    if (count++ == 0) {
+                        // Leaves the reader after the end tag
+                        first = unmarshaller.get().unmarshal(reader, type).getValue();
+                        continue;
+                    }
+                }
+                reader.next();
+            }
+            return new RootScan<>(first, count);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String rootName(Class<?> type) {
+        XmlRootElement root = type.getAnnotation(XmlRootElement.class);
+        if (root != null && !"##default".equals(root.name())) {
+            return root.name();
+        }
+        return Introspector.decapitalize(type.getSimpleName());
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static <E> E create(JaxbFactory<E> factory) {
+        try {
+            return factory.create();
+        } catch (JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface JaxbFactory<E> {
+        E create() throws JAXBException;
+    }
+}
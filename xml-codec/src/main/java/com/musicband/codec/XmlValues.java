@@ -0,0 +1,92 @@
+package com.musicband.codec;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes simple values the way the JAXB reference implementation prints them, so hand-written
+ * serializers produce the same bytes as a marshaller: null elements are left out, doubles use the
+ * xs:double lexical form and carriage returns are written as character references.
+ */
+public final class XmlValues {
+
+    private XmlValues() {
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        writer.writeStartElement(name);
+        writeText(writer, value);
+        writer.writeEndElement();
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String name, Integer value) throws XMLStreamException {
+        if (value != null) {
+            writeRaw(writer, name, value.toString());
+        }
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String name, Long value) throws XMLStreamException {
+        if (value != null) {
+            writeRaw(writer, name, value.toString());
+        }
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String name, Double value) throws XMLStreamException {
+        if (value != null) {
+            writeRaw(writer, name, printDouble(value));
+        }
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String name, Enum<?> value) throws XMLStreamException {
+        if (value != null) {
+            writeRaw(writer, name, value.name());
+        }
+    }
+
+    /**
+     * Text content with {@code \r} written as {@code &#13;}, which most writers pass through
+     * and parsers then normalize away.
+     */
+    public static void writeText(XMLStreamWriter writer, String text) throws XMLStreamException {
+        if (writer instanceof Utf8XmlWriter) {
+            // Already escapes it
+            writer.writeCharacters(text);
+            return;
+        }
+        int start = 0;
+        int cr;
+        while ((cr = text.indexOf('\r', start)) >= 0) {
+            if (cr > start) {
+                writer.writeCharacters(text.substring(start, cr));
+            }
+            writer.writeEntityRef("#13");
+            start = cr + 1;
+        }
+        if (start < text.length()) {
+            writer.writeCharacters(start == 0 ? text : text.substring(start));
+        }
+    }
+
+    public static String printDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            return "INF";
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "-INF";
+        }
+        return String.valueOf(value);
+    }
+
+    // Numbers and enum names never need escaping
+    private static void writeRaw(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+}
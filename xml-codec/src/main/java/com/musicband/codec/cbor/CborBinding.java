@@ -0,0 +1,36 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON-B bound to CBOR: the platform binding runs over {@link CborJsonProvider}, so names, order and
+ * {@code @JsonbTransient} exclusions match the JSON representation. Only byte streams go in and
+ * out; the provider itself stays in this package, so nothing can ask it for the text or object model
+ * variants of JSON-P, which CBOR has no use for.
+ */
+public final class CborBinding {
+
+    private static final Jsonb JSONB = JsonbBuilder.newBuilder().withProvider(new CborJsonProvider()).build();
+
+    private CborBinding() {
+    }
+
+    /**
+     * Reads one CBOR data item as {@code type}; the stream is closed afterwards.
+     */
+    public static <T> T read(InputStream in, Type type) {
+        return JSONB.fromJson(in, type);
+    }
+
+    /**
+     * Writes {@code value} as one CBOR data item; the stream is closed afterwards.
+     */
+    public static void write(Object value, Type type, OutputStream out) {
+        JSONB.toJson(value, type, out);
+    }
+}
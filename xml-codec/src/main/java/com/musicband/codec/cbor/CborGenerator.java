@@ -0,0 +1,359 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes JSON-P generator events as CBOR (RFC 8949). Objects and arrays use indefinite lengths,
+ * since their size is not known when they start. Numbers take the preferred serialization: the
+ * shortest integer header, and the shortest of half, single and double precision that keeps a
+ * double exact. Decimals are tag 4 decimal fractions.
+ */
+final class CborGenerator implements JsonGenerator {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int depth;
+
+    CborGenerator(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public JsonGenerator writeStartObject() {
+        put(0xBF);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartObject(String name) {
+        return writeKey(name).writeStartObject();
+    }
+
+    @Override
+    public JsonGenerator writeKey(String name) {
+        writeText(name);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartArray() {
+        put(0x9F);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeStartArray(String name) {
+        return writeKey(name).writeStartArray();
+    }
+
+    @Override
+    public JsonGenerator write(String name, JsonValue value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, String value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, BigInteger value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, BigDecimal value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, int value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, long value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, double value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator write(String name, boolean value) {
+        return writeKey(name).write(value);
+    }
+
+    @Override
+    public JsonGenerator writeNull(String name) {
+        return writeKey(name).writeNull();
+    }
+
+    @Override
+    public JsonGenerator writeEnd() {
+        if (depth == 0) {
+            throw new JsonGenerationException("writeEnd() outside of an object or array");
+        }
+        put(0xFF);
+        depth--;
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(JsonValue value) {
+        switch (value.getValueType()) {
+            case OBJECT:
+                writeStartObject();
+                for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+                    write(entry.getKey(), entry.getValue());
+                }
+                return writeEnd();
+            case ARRAY:
+                writeStartArray();
+                for (JsonValue item : (JsonArray) value) {
+                    write(item);
+                }
+                return writeEnd();
+            case STRING:
+                return write(((JsonString) value).getString());
+            case NUMBER:
+                JsonNumber number = (JsonNumber) value;
+                return number.isIntegral() ? write(number.bigIntegerValue()) : write(number.bigDecimalValue());
+            case TRUE:
+                return write(true);
+            case FALSE:
+                return write(false);
+            default:
+                return writeNull();
+        }
+    }
+
+    @Override
+    public JsonGenerator write(String value) {
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18) {
+            return write(stripped.longValueExact());
+        }
+        if (stripped.unscaledValue().bitLength() < 64) {
+            // Tag 4: [exponent, mantissa]
+            put(0xC4);
+            put(0x82);
+            write((long) -stripped.scale());
+            return write(stripped.unscaledValue().longValue());
+        }
+        return write(value.doubleValue());
+    }
+
+    @Override
+    public JsonGenerator write(BigInteger value) {
+        if (value.bitLength() < 64) {
+            return write(value.longValue());
+        }
+        boolean negative = value.signum() < 0;
+        BigInteger unsigned = negative ? value.negate().subtract(BigInteger.ONE) : value;
+        if (unsigned.bitLength() == 64) {
+            // Still fits the eight byte argument of major types 0 and 1
+            put((negative ? 0x20 : 0) | 27);
+            writeLong(unsigned.longValue());
+            return this;
+        }
+        // Tags 2 and 3: unsigned big-endian magnitude, negative as -1 - n
+        byte[] magnitude = unsigned.toByteArray();
+        int offset = magnitude[0] == 0 ? 1 : 0;
+        put(negative ? 0xC3 : 0xC2);
+        writeHeader(2, magnitude.length - offset);
+        writeBytes(magnitude, offset, magnitude.length - offset);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(int value) {
+        return write((long) value);
+    }
+
+    @Override
+    public JsonGenerator write(long value) {
+        if (value >= 0) {
+            writeHeader(0, value);
+        } else {
+            writeHeader(1, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("JSON numbers cannot be NaN or infinite: " + value);
+        }
+        float single = (float) value;
+        if (single != value) {
+            put(0xFB);
+            writeLong(Double.doubleToLongBits(value));
+            return this;
+        }
+        int half = toHalf(single);
+        if (half >= 0) {
+            put(0xF9);
+            put(half >>> 8);
+            put(half);
+        } else {
+            put(0xFA);
+            writeInt(Float.floatToIntBits(single));
+        }
+        return this;
+    }
+
+    @Override
+    public JsonGenerator write(boolean value) {
+        put(value ? 0xF5 : 0xF4);
+        return this;
+    }
+
+    @Override
+    public JsonGenerator writeNull() {
+        put(0xF6);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new JsonException("Failed to close CBOR output", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        } catch (IOException e) {
+            throw new JsonException("Failed to write CBOR output", e);
+        }
+    }
+
+    private void writeText(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHeader(3, bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeHeader(int major, long value) {
+        int type = major << 5;
+        if (value < 24) {
+            put(type | (int) value);
+        } else if (value < 0x100) {
+            put(type | 24);
+            put((int) value);
+        } else if (value < 0x10000) {
+            put(type | 25);
+            put((int) (value >> 8));
+            put((int) value);
+        } else if (value < 0x100000000L) {
+            put(type | 26);
+            writeInt((int) value);
+        } else {
+            put(type | 27);
+            writeLong(value);
+        }
+    }
+
+    /**
+     * The IEEE 754 half precision bits of {@code value}, or -1 when it has no exact half.
+     */
+    static int toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127;
+        int mantissa = bits & 0x7FFFFF;
+        if (exponent == -127 && mantissa == 0) {
+            return sign;
+        }
+        if (exponent >= -14 && exponent <= 15) {
+            return (mantissa & 0x1FFF) != 0 ? -1 : sign | (exponent + 15) << 10 | mantissa >>> 13;
+        }
+        if (exponent >= -24 && exponent < -14) {
+            // Subnormal half: the implicit leading one moves into the ten mantissa bits
+            int shift = 13 + (-14 - exponent);
+            int significand = mantissa | 0x800000;
+            return (significand & ((1 << shift) - 1)) != 0 ? -1 : sign | significand >>> shift;
+        }
+        return -1;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeInt(int value) {
+        put(value >>> 24);
+        put(value >>> 16);
+        put(value >>> 8);
+        put(value);
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        if (length > BUFFER_SIZE - position) {
+            flushBuffer();
+            if (length > BUFFER_SIZE) {
+                try {
+                    out.write(bytes, offset, length);
+                } catch (IOException e) {
+                    throw new JsonException("Failed to write CBOR output", e);
+                }
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void put(int b) {
+        if (position == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flushBuffer() {
+        try {
+            out.write(buffer, 0, position);
+            position = 0;
+        } catch (IOException e) {
+            throw new JsonException("Failed to write CBOR output", e);
+        }
+    }
+}
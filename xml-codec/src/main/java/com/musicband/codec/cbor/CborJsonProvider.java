@@ -0,0 +1,379 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonBuilderFactory;
+import jakarta.json.JsonMergePatch;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonPatch;
+import jakarta.json.JsonPatchBuilder;
+import jakarta.json.JsonPointer;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import jakarta.json.JsonWriterFactory;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+import jakarta.json.stream.JsonParsingException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * JSON-P provider whose byte stream parsers, generators, readers and writers read and write CBOR
+ * instead of JSON text, so a JSON-B instance built with it binds the same classes to
+ * {@code application/cbor}. Character streams can only hold text and stay JSON: JSON-B parses
+ * map keys through them. Builders and values come from the platform provider.
+ */
+final class CborJsonProvider extends JsonProvider {
+
+    private final JsonProvider platform = JsonProvider.provider();
+
+    @Override
+    public JsonParser createParser(Reader reader) {
+        return platform.createParser(reader);
+    }
+
+    @Override
+    public JsonParser createParser(InputStream in) {
+        return new CborParser(in);
+    }
+
+    @Override
+    public JsonParserFactory createParserFactory(Map<String, ?> config) {
+        JsonParserFactory text = platform.createParserFactory(config);
+        return new JsonParserFactory() {
+            @Override
+            public JsonParser createParser(Reader reader) {
+                return text.createParser(reader);
+            }
+
+            @Override
+            public JsonParser createParser(InputStream in) {
+                return new CborParser(in);
+            }
+
+            @Override
+            public JsonParser createParser(InputStream in, Charset charset) {
+                return new CborParser(in);
+            }
+
+            @Override
+            public JsonParser createParser(JsonObject obj) {
+                return text.createParser(obj);
+            }
+
+            @Override
+            public JsonParser createParser(JsonArray array) {
+                return text.createParser(array);
+            }
+
+            @Override
+            public Map<String, ?> getConfigInUse() {
+                return text.getConfigInUse();
+            }
+        };
+    }
+
+    @Override
+    public JsonGenerator createGenerator(Writer writer) {
+        return platform.createGenerator(writer);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(OutputStream out) {
+        return new CborGenerator(out);
+    }
+
+    @Override
+    public JsonGeneratorFactory createGeneratorFactory(Map<String, ?> config) {
+        JsonGeneratorFactory text = platform.createGeneratorFactory(config);
+        return new JsonGeneratorFactory() {
+            @Override
+            public JsonGenerator createGenerator(Writer writer) {
+                return text.createGenerator(writer);
+            }
+
+            @Override
+            public JsonGenerator createGenerator(OutputStream out) {
+                return new CborGenerator(out);
+            }
+
+            @Override
+            public JsonGenerator createGenerator(OutputStream out, Charset charset) {
+                return new CborGenerator(out);
+            }
+
+            @Override
+            public Map<String, ?> getConfigInUse() {
+                return text.getConfigInUse();
+            }
+        };
+    }
+
+    @Override
+    public JsonReader createReader(Reader reader) {
+        return platform.createReader(reader);
+    }
+
+    @Override
+    public JsonReader createReader(InputStream in) {
+        return new CborReader(new CborParser(in));
+    }
+
+    @Override
+    public JsonWriter createWriter(Writer writer) {
+        return platform.createWriter(writer);
+    }
+
+    @Override
+    public JsonWriter createWriter(OutputStream out) {
+        return new CborWriter(new CborGenerator(out));
+    }
+
+    @Override
+    public JsonWriterFactory createWriterFactory(Map<String, ?> config) {
+        JsonWriterFactory text = platform.createWriterFactory(config);
+        return new JsonWriterFactory() {
+            @Override
+            public JsonWriter createWriter(Writer writer) {
+                return text.createWriter(writer);
+            }
+
+            @Override
+            public JsonWriter createWriter(OutputStream out) {
+                return new CborWriter(new CborGenerator(out));
+            }
+
+            @Override
+            public JsonWriter createWriter(OutputStream out, Charset charset) {
+                return new CborWriter(new CborGenerator(out));
+            }
+
+            @Override
+            public Map<String, ?> getConfigInUse() {
+                return text.getConfigInUse();
+            }
+        };
+    }
+
+    @Override
+    public JsonReaderFactory createReaderFactory(Map<String, ?> config) {
+        JsonReaderFactory text = platform.createReaderFactory(config);
+        return new JsonReaderFactory() {
+            @Override
+            public JsonReader createReader(Reader reader) {
+                return text.createReader(reader);
+            }
+
+            @Override
+            public JsonReader createReader(InputStream in) {
+                return new CborReader(new CborParser(in));
+            }
+
+            @Override
+            public JsonReader createReader(InputStream in, Charset charset) {
+                return new CborReader(new CborParser(in));
+            }
+
+            @Override
+            public Map<String, ?> getConfigInUse() {
+                return text.getConfigInUse();
+            }
+        };
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder() {
+        return platform.createObjectBuilder();
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder(JsonObject object) {
+        return platform.createObjectBuilder(object);
+    }
+
+    @Override
+    public JsonObjectBuilder createObjectBuilder(Map<String, Object> map) {
+        return platform.createObjectBuilder(map);
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder() {
+        return platform.createArrayBuilder();
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder(JsonArray array) {
+        return platform.createArrayBuilder(array);
+    }
+
+    @Override
+    public JsonArrayBuilder createArrayBuilder(Collection<?> collection) {
+        return platform.createArrayBuilder(collection);
+    }
+
+    @Override
+    public JsonBuilderFactory createBuilderFactory(Map<String, ?> config) {
+        return platform.createBuilderFactory(config);
+    }
+
+    @Override
+    public JsonPointer createPointer(String jsonPointer) {
+        return platform.createPointer(jsonPointer);
+    }
+
+    @Override
+    public JsonPatchBuilder createPatchBuilder() {
+        return platform.createPatchBuilder();
+    }
+
+    @Override
+    public JsonPatchBuilder createPatchBuilder(JsonArray array) {
+        return platform.createPatchBuilder(array);
+    }
+
+    @Override
+    public JsonPatch createPatch(JsonArray array) {
+        return platform.createPatch(array);
+    }
+
+    @Override
+    public JsonPatch createDiff(JsonStructure source, JsonStructure target) {
+        return platform.createDiff(source, target);
+    }
+
+    @Override
+    public JsonMergePatch createMergePatch(JsonValue patch) {
+        return platform.createMergePatch(patch);
+    }
+
+    @Override
+    public JsonMergePatch createMergeDiff(JsonValue source, JsonValue target) {
+        return platform.createMergeDiff(source, target);
+    }
+
+    @Override
+    public JsonString createValue(String value) {
+        return platform.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(int value) {
+        return platform.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(long value) {
+        return platform.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(double value) {
+        return platform.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(BigDecimal value) {
+        return platform.createValue(value);
+    }
+
+    @Override
+    public JsonNumber createValue(BigInteger value) {
+        return platform.createValue(value);
+    }
+
+    private static final class CborReader implements JsonReader {
+        private final CborParser parser;
+
+        private CborReader(CborParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public JsonStructure read() {
+            JsonValue value = readValue();
+            if (!(value instanceof JsonStructure)) {
+                throw new JsonParsingException("Expected an object or an array", parser.getLocation());
+            }
+            return (JsonStructure) value;
+        }
+
+        @Override
+        public JsonObject readObject() {
+            JsonStructure value = read();
+            if (!(value instanceof JsonObject)) {
+                throw new JsonParsingException("Expected an object", parser.getLocation());
+            }
+            return (JsonObject) value;
+        }
+
+        @Override
+        public JsonArray readArray() {
+            JsonStructure value = read();
+            if (!(value instanceof JsonArray)) {
+                throw new JsonParsingException("Expected an array", parser.getLocation());
+            }
+            return (JsonArray) value;
+        }
+
+        @Override
+        public JsonValue readValue() {
+            parser.next();
+            return parser.getValue();
+        }
+
+        @Override
+        public void close() {
+            parser.close();
+        }
+    }
+
+    private static final class CborWriter implements JsonWriter {
+        private final CborGenerator generator;
+
+        private CborWriter(CborGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void writeArray(JsonArray array) {
+            generator.write(array);
+        }
+
+        @Override
+        public void writeObject(JsonObject object) {
+            generator.write(object);
+        }
+
+        @Override
+        public void write(JsonStructure value) {
+            generator.write(value);
+        }
+
+        @Override
+        public void write(JsonValue value) {
+            generator.write(value);
+        }
+
+        @Override
+        public void close() {
+            generator.close();
+        }
+    }
+}
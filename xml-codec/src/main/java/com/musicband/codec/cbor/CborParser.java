@@ -0,0 +1,476 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads CBOR (RFC 8949) as JSON-P parser events. Map keys must be text strings and are reported
+ * as {@link Event#KEY_NAME}; byte strings are read as base64 text, unknown tags are skipped.
+ */
+final class CborParser implements JsonParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int BREAK = 0xFF;
+    private static final int INDEFINITE = 31;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long offset;
+
+    private final Deque<Container> stack = new ArrayDeque<>();
+    private boolean done;
+    private Event current;
+    private String text;
+    private long longValue;
+    private BigDecimal decimalValue;
+    private double doubleValue;
+    private NumberKind numberKind;
+
+    CborParser(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Event next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        Container container = stack.peek();
+        if (container != null && container.remaining == 0) {
+            return current = end();
+        }
+
+        int initial = read();
+        if (initial == BREAK) {
+            if (container == null || container.remaining >= 0) {
+                throw error("Unexpected break");
+            }
+            return current = end();
+        }
+
+        boolean key = container != null && container.map && container.expectKey;
+        if (container != null) {
+            if (container.remaining > 0) {
+                container.remaining--;
+            }
+            if (container.map) {
+                container.expectKey = !container.expectKey;
+            }
+        }
+        if (key) {
+            if (initial >> 5 != 3) {
+                throw error("Map keys must be text strings");
+            }
+            text = readText(initial & 0x1F);
+            return current = Event.KEY_NAME;
+        }
+        current = value(initial);
+        if (stack.isEmpty() && current != Event.START_ARRAY && current != Event.START_OBJECT) {
+            done = true;
+        }
+        return current;
+    }
+
+    @Override
+    public String getString() {
+        switch (current) {
+            case KEY_NAME:
+            case VALUE_STRING:
+                return text;
+            case VALUE_NUMBER:
+                return numberKind == NumberKind.LONG ? Long.toString(longValue)
+                        : numberKind == NumberKind.DOUBLE ? Double.toString(doubleValue)
+                        : decimalValue.toString();
+            default:
+                throw new IllegalStateException("No string value at " + current);
+        }
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        requireNumber();
+        return numberKind == NumberKind.LONG
+                || numberKind == NumberKind.DECIMAL && decimalValue.scale() <= 0;
+    }
+
+    @Override
+    public int getInt() {
+        requireNumber();
+        return numberKind == NumberKind.LONG ? (int) longValue : getBigDecimal().intValue();
+    }
+
+    @Override
+    public long getLong() {
+        requireNumber();
+        return numberKind == NumberKind.LONG ? longValue : getBigDecimal().longValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        requireNumber();
+        switch (numberKind) {
+            case LONG:
+                return BigDecimal.valueOf(longValue);
+            case DOUBLE:
+                return BigDecimal.valueOf(doubleValue);
+            default:
+                return decimalValue;
+        }
+    }
+
+    @Override
+    public JsonValue getValue() {
+        switch (current) {
+            case START_OBJECT:
+                return getObject();
+            case START_ARRAY:
+                return getArray();
+            case KEY_NAME:
+            case VALUE_STRING:
+                return Json.createValue(text);
+            case VALUE_NUMBER:
+                return numberKind == NumberKind.LONG ? Json.createValue(longValue) : Json.createValue(getBigDecimal());
+            case VALUE_TRUE:
+                return JsonValue.TRUE;
+            case VALUE_FALSE:
+                return JsonValue.FALSE;
+            case VALUE_NULL:
+                return JsonValue.NULL;
+            default:
+                throw new IllegalStateException("No value at " + current);
+        }
+    }
+
+    @Override
+    public JsonObject getObject() {
+        if (current != Event.START_OBJECT) {
+            throw new IllegalStateException("No object at " + current);
+        }
+        JsonObjectBuilder object = Json.createObjectBuilder();
+        while (next() != Event.END_OBJECT) {
+            String key = text;
+            next();
+            object.add(key, getValue());
+        }
+        return object.build();
+    }
+
+    @Override
+    public JsonArray getArray() {
+        if (current != Event.START_ARRAY) {
+            throw new IllegalStateException("No array at " + current);
+        }
+        JsonArrayBuilder array = Json.createArrayBuilder();
+        while (next() != Event.END_ARRAY) {
+            array.add(getValue());
+        }
+        return array.build();
+    }
+
+    @Override
+    public JsonLocation getLocation() {
+        long streamOffset = offset + position;
+        return new JsonLocation() {
+            @Override
+            public long getLineNumber() {
+                return -1;
+            }
+
+            @Override
+            public long getColumnNumber() {
+                return -1;
+            }
+
+            @Override
+            public long getStreamOffset() {
+                return streamOffset;
+            }
+        };
+    }
+
+    @Override
+    public void skipObject() {
+        skipContainer(Event.START_OBJECT);
+    }
+
+    @Override
+    public void skipArray() {
+        skipContainer(Event.START_ARRAY);
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new JsonException("Failed to close CBOR input", e);
+        }
+    }
+
+    private void skipContainer(Event start) {
+        if (current != start) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event event = next();
+            if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+                depth++;
+            } else if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+
+    private Event end() {
+        Container container = stack.pop();
+        if (container.map && !container.expectKey) {
+            throw error("Map ends after a key without a value");
+        }
+        if (stack.isEmpty()) {
+            done = true;
+        }
+        return container.map ? Event.END_OBJECT : Event.END_ARRAY;
+    }
+
+    private Event value(int initial) {
+        int major = initial >> 5;
+        int info = initial & 0x1F;
+        switch (major) {
+            case 0:
+                return number(readArgument(info), false);
+            case 1:
+                return number(readArgument(info), true);
+            case 2:
+                text = Base64.getEncoder().encodeToString(readBytes(info));
+                return Event.VALUE_STRING;
+            case 3:
+                text = readText(info);
+                return Event.VALUE_STRING;
+            case 4:
+                stack.push(new Container(false, info == INDEFINITE ? -1 : readArgument(info)));
+                return Event.START_ARRAY;
+            case 5:
+                long pairs = info == INDEFINITE ? -1 : readArgument(info);
+                stack.push(new Container(true, pairs < 0 ? -1 : pairs * 2));
+                return Event.START_OBJECT;
+            case 6:
+                return tagged(readArgument(info));
+            default:
+                return simple(info);
+        }
+    }
+
+    private Event number(long argument, boolean negative) {
+        if (argument >= 0) {
+            numberKind = NumberKind.LONG;
+            longValue = negative ? -1 - argument : argument;
+        } else {
+            // Above Long.MAX_VALUE as an unsigned argument
+            BigInteger unsigned = new BigInteger(Long.toUnsignedString(argument));
+            numberKind = NumberKind.DECIMAL;
+            decimalValue = new BigDecimal(negative ? unsigned.negate().subtract(BigInteger.ONE) : unsigned);
+        }
+        return Event.VALUE_NUMBER;
+    }
+
+    private Event tagged(long tag) {
+        int initial = read();
+        if (tag == 2 || tag == 3) {
+            BigInteger magnitude = new BigInteger(1, readBytes(initial & 0x1F));
+            numberKind = NumberKind.DECIMAL;
+            decimalValue = new BigDecimal(tag == 2 ? magnitude : magnitude.negate().subtract(BigInteger.ONE));
+            return Event.VALUE_NUMBER;
+        }
+        if (tag == 4 && initial == 0x82) {
+            long exponent = readInteger();
+            long mantissa = readInteger();
+            if (exponent < Integer.MIN_VALUE + 1 || exponent > Integer.MAX_VALUE) {
+                throw error("Decimal fraction exponent out of range");
+            }
+            numberKind = NumberKind.DECIMAL;
+            decimalValue = BigDecimal.valueOf(mantissa, (int) -exponent);
+            return Event.VALUE_NUMBER;
+        }
+        return value(initial);
+    }
+
+    private Event simple(int info) {
+        switch (info) {
+            case 20:
+                return Event.VALUE_FALSE;
+            case 21:
+                return Event.VALUE_TRUE;
+            case 22:
+            case 23:
+                return Event.VALUE_NULL;
+            case 25:
+                return floating(halfToFloat((read() << 8) | read()));
+            case 26:
+                return floating(Float.intBitsToFloat(readInt()));
+            case 27:
+                return floating(Double.longBitsToDouble(((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL)));
+            default:
+                throw error("Unsupported simple value " + info);
+        }
+    }
+
+    private Event floating(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw error("JSON numbers cannot be NaN or infinite");
+        }
+        numberKind = NumberKind.DOUBLE;
+        doubleValue = value;
+        return Event.VALUE_NUMBER;
+    }
+
+    // Exponent and mantissa of a decimal fraction, bignum mantissas are not supported
+    private long readInteger() {
+        int initial = read();
+        int major = initial >> 5;
+        long argument = readArgument(initial & 0x1F);
+        if (major > 1 || argument < 0) {
+            throw error("Malformed decimal fraction");
+        }
+        return major == 0 ? argument : -1 - argument;
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        float value = exponent == 0 ? mantissa * 0x1p-24f
+                : exponent == 31 ? (mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN)
+                : (mantissa + 1024) * (float) Math.pow(2, exponent - 25);
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private String readText(int info) {
+        return new String(readBytes(info), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int info) {
+        if (info != INDEFINITE) {
+            return readExactly(readArgument(info));
+        }
+        // Indefinite strings are a sequence of definite chunks of the same major type
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int initial = read(); initial != BREAK; initial = read()) {
+            byte[] chunk = readExactly(readArgument(initial & 0x1F));
+            chunks.write(chunk, 0, chunk.length);
+        }
+        return chunks.toByteArray();
+    }
+
+    private byte[] readExactly(long length) {
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw error("String too long");
+        }
+        byte[] bytes = new byte[(int) length];
+        int copied = 0;
+        while (copied < bytes.length) {
+            if (position == limit) {
+                fill();
+            }
+            int chunk = Math.min(limit - position, bytes.length - copied);
+            System.arraycopy(buffer, position, bytes, copied, chunk);
+            position += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    private long readArgument(int info) {
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                return read();
+            case 25:
+                return (read() << 8) | read();
+            case 26:
+                return readInt() & 0xFFFFFFFFL;
+            case 27:
+                return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+            default:
+                throw error("Unexpected additional information " + info);
+        }
+    }
+
+    private int readInt() {
+        return (read() << 24) | (read() << 16) | (read() << 8) | read();
+    }
+
+    private int read() {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void fill() {
+        try {
+            offset += limit;
+            position = 0;
+            limit = 0;
+            int count = in.read(buffer, 0, BUFFER_SIZE);
+            if (count <= 0) {
+                throw error("Unexpected end of CBOR input");
+            }
+            limit = count;
+        } catch (IOException e) {
+            throw new JsonException("Failed to read CBOR input", e);
+        }
+    }
+
+    private void requireNumber() {
+        if (current != Event.VALUE_NUMBER) {
+            throw new IllegalStateException("No number value at " + current);
+        }
+    }
+
+    private JsonParsingException error(String message) {
+        return new JsonParsingException(message, getLocation());
+    }
+
+    private enum NumberKind {
+        LONG, DOUBLE, DECIMAL
+    }
+
+    private static final class Container {
+        private final boolean map;
+        private long remaining;
+        private boolean expectKey = true;
+
+        private Container(boolean map, long remaining) {
+            this.map = map;
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.musicband.codec.jaxrs;
+
+import com.musicband.codec.cbor.CborBinding;
+import jakarta.json.bind.JsonbException;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Binds entities to {@code application/cbor} with JSON-B through {@link CborBinding}, so the
+ * field names, order and {@code @JsonbTransient} exclusions are the same as in the JSON responses.
+ */
+@Provider
+@Consumes(CborProvider.APPLICATION_CBOR)
+@Produces(CborProvider.APPLICATION_CBOR)
+public class CborProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBound(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) {
+        try {
+            return CborBinding.read(entityStream, genericType != null ? genericType : type);
+        } catch (JsonbException e) {
+            throw new BadRequestException("Failed to parse CBOR: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBound(type);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) {
+        try {
+            CborBinding.write(value, genericType != null ? genericType : type, new Unclosed(entityStream));
+        } catch (JsonbException e) {
+            throw new InternalServerErrorException("Failed to write CBOR", e);
+        }
+    }
+
+    // Streams, raw bodies and Response are left to the container
+    private static boolean isBound(Class<?> type) {
+        return !type.isPrimitive() && !type.getName().startsWith("java.")
+                && !StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    // JSON-B closes the generator, the container owns the entity stream
+    private static final class Unclosed extends FilterOutputStream {
+
+        private Unclosed(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
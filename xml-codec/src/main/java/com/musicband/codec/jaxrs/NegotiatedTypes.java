@@ -0,0 +1,67 @@
+package com.musicband.codec.jaxrs;
+
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.List;
+
+/**
+ * {@code @Produces} values of endpoints that also speak JSON and CBOR. The source quality keeps
+ * XML the answer to {@code Accept: *}{@code /*} and to clients listing several types at the same q.
+ */
+public final class NegotiatedTypes {
+
+    public static final String XML = "application/xml;qs=1";
+    public static final String JSON = "application/json;qs=0.9";
+    public static final String CBOR = CborProvider.APPLICATION_CBOR + ";qs=0.8";
+
+    private static final MediaType[] TYPES = {
+            MediaType.APPLICATION_XML_TYPE,
+            MediaType.APPLICATION_JSON_TYPE,
+            new MediaType("application", "cbor")
+    };
+    private static final double[] SOURCE_QUALITY = {1, 0.9, 0.8};
+
+    private NegotiatedTypes() {
+    }
+
+    /**
+     * The type the container picks among the three for {@code acceptable}, known before the entity
+     * is built, so entity tags can name it. XML if none is acceptable; the container has
+     * answered 406 before a resource method runs in that case.
+     */
+    public static MediaType select(List<MediaType> acceptable) {
+        MediaType selected = TYPES[0];
+        double best = 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            double score = quality(TYPES[i], acceptable) * SOURCE_QUALITY[i];
+            if (score > best) {
+                best = score;
+                selected = TYPES[i];
+            }
+        }
+        return selected;
+    }
+
+    // The most specific range that includes the type sets its quality
+    private static double quality(MediaType type, List<MediaType> acceptable) {
+        MediaType match = null;
+        for (MediaType range : acceptable) {
+            if (range.isCompatible(type) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        if (match == null) {
+            return 0;
+        }
+        String q = match.getParameters().get("q");
+        try {
+            return q != null ? Double.parseDouble(q) : 1;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+}
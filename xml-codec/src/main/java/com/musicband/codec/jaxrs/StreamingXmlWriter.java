@@ -0,0 +1,63 @@
+package com.musicband.codec.jaxrs;
+
+import com.musicband.codec.Utf8XmlWriter;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base of the hand-written writers for hot response types: the subclass writes the root element
+ * to a {@link Utf8XmlWriter}, without JAXB reflection, and must produce the same bytes
+ * as {@link XmlCodecProvider}. Being specific to one type, it takes precedence over that provider
+ * for UTF-8 responses; {@code -Dxml.codec.jaxb=true} turns all of them off and JAXB writes again.
+ */
+public abstract class StreamingXmlWriter<T> implements MessageBodyWriter<T> {
+
+    private static final boolean JAXB_FALLBACK = Boolean.getBoolean("xml.codec.jaxb");
+
+    // What the JAXB RI marshaller writes before the root element
+    private static final byte[] DECLARATION =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>".getBytes(StandardCharsets.UTF_8);
+
+    private final Class<T> type;
+
+    protected StreamingXmlWriter(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (JAXB_FALLBACK || this.type != type) {
+            return false;
+        }
+        String charset = mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        return charset == null || StandardCharsets.UTF_8.name().equalsIgnoreCase(charset);
+    }
+
+    @Override
+    public void writeTo(T value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        entityStream.write(DECLARATION);
+        try {
+            XMLStreamWriter writer = new Utf8XmlWriter(entityStream);
+            write(writer, value);
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new InternalServerErrorException("Failed to write XML", e);
+        }
+    }
+
+    /**
+     * Writes {@code value} as the root element.
+     */
+    protected abstract void write(XMLStreamWriter writer, T value) throws XMLStreamException;
+}
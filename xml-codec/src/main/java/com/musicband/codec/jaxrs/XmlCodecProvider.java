@@ -0,0 +1,80 @@
+package com.musicband.codec.jaxrs;
+
+import com.musicband.codec.Lease;
+import com.musicband.codec.XmlCodec;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes {@link XmlRootElement} entities through {@link XmlCodec}, so requests share
+ * one JAXB context per type and pooled (un)marshallers instead of the container defaults.
+ * Found by the provider scan of every deployment that bundles this jar.
+ */
+@Provider
+@Consumes({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+@Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+public class XmlCodecProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type.isAnnotationPresent(XmlRootElement.class);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) {
+        try {
+            return XmlCodec.of((Class) type).read(entityStream);
+        } catch (JAXBException | XMLStreamException e) {
+            throw new BadRequestException("Failed to parse XML: " + describe(e), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type.isAnnotationPresent(XmlRootElement.class);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) {
+        XmlCodec codec = XmlCodec.of(type);
+        String charset = mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        try (Lease<Marshaller> marshaller = codec.marshaller(false)) {
+            if (charset != null && !StandardCharsets.UTF_8.name().equalsIgnoreCase(charset)) {
+                marshaller.get().setProperty(Marshaller.JAXB_ENCODING, charset);
+            }
+            marshaller.get().marshal(value, entityStream);
+        } catch (JAXBException e) {
+            throw new InternalServerErrorException("Failed to write XML", e);
+        }
+    }
+
+    // JAXB wraps the parser error and leaves its own message empty
+    private static String describe(Exception e) {
+        Throwable cause = e;
+        while (cause.getMessage() == null && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+}
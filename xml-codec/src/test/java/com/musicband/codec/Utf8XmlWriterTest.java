@@ -0,0 +1,82 @@
+package com.musicband.codec;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Utf8XmlWriterTest {
+
+    @Test
+    void collapsesEmptyElements() throws Exception {
+        assertEquals("<a><b/><c x=\"1\"/><d></d></a>", write(writer -> {
+            writer.writeStartElement("a");
+            writer.writeStartElement("b");
+            writer.writeEndElement();
+            writer.writeEmptyElement("c");
+            writer.writeAttribute("x", "1");
+            writer.writeStartElement("d");
+            writer.writeCharacters("");
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        }));
+    }
+
+    @Test
+    void encodesLikeStringGetBytes() throws Exception {
+        String text = "ascii é 東京 🎸 \uD800 lone \uDC00 low";
+        byte[] written = write(writer -> writer.writeCharacters(text)).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), written);
+    }
+
+    @Test
+    void copiesRawMarkupAcrossBufferBoundaries() throws Exception {
+        byte[] fragment = "<f>фрагмент</f>".getBytes(StandardCharsets.UTF_8);
+        byte[] large = ("<l>" + "x".repeat(10_000) + "</l>").getBytes(StandardCharsets.UTF_8);
+        StringBuilder expected = new StringBuilder("<r>");
+
+        String written = write(writer -> {
+            writer.writeStartElement("r");
+            for (int i = 0; i < 1000; i++) {
+                ((Utf8XmlWriter) writer).writeRaw(fragment);
+            }
+            ((Utf8XmlWriter) writer).writeRaw(large);
+            writer.writeEndElement();
+        });
+        expected.append(new String(fragment, StandardCharsets.UTF_8).repeat(1000))
+                .append(new String(large, StandardCharsets.UTF_8))
+                .append("</r>");
+
+        assertEquals(expected.toString(), written);
+    }
+
+    @Test
+    void rejectsWhatItCannotWrite() {
+        Utf8XmlWriter writer = new Utf8XmlWriter(new ByteArrayOutputStream());
+
+        assertThrows(XMLStreamException.class, () -> writer.writeAttribute("x", "1"));
+        assertThrows(XMLStreamException.class, writer::writeEndElement);
+        assertThrows(XMLStreamException.class, () -> writer.writeStartDocument("ISO-8859-1", "1.0"));
+        assertThrows(XMLStreamException.class, () -> writer.writeComment("comment"));
+        assertThrows(XMLStreamException.class, () -> writer.writeStartElement("urn:x", "a"));
+    }
+
+    private static String write(Body body) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8XmlWriter writer = new Utf8XmlWriter(out);
+        body.write(writer);
+        writer.close();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Body {
+        void write(XMLStreamWriter writer) throws XMLStreamException;
+    }
+}
@@ -0,0 +1,50 @@
+package com.musicband.codec;
+
+import jakarta.xml.bind.DatatypeConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XmlValuesTest {
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, -0.0, 1.0, -1.5, 0.1, 1e7, 1.0E-5, 123456789.125, Double.MIN_VALUE,
+            Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY})
+    void printsDoublesLikeJaxb(double value) {
+        assertEquals(DatatypeConverter.printDouble(value), XmlValues.printDouble(value));
+    }
+
+    @Test
+    void writesCarriageReturnsAsReferencesWithAnyWriter() throws Exception {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+
+        XmlValues.writeElement(writer, "text", "a\r\nb\r");
+        writer.close();
+
+        assertEquals("<text>a&#13;\nb&#13;</text>", out.toString());
+    }
+
+    @Test
+    void leavesNullElementsOut() throws Exception {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+
+        writer.writeStartElement("root");
+        XmlValues.writeElement(writer, "text", (String) null);
+        XmlValues.writeElement(writer, "count", (Integer) null);
+        XmlValues.writeElement(writer, "total", (Long) null);
+        XmlValues.writeElement(writer, "ratio", (Double) null);
+        XmlValues.writeElement(writer, "kind", (Enum<?>) null);
+        writer.writeEndElement();
+        writer.close();
+
+        assertEquals("<root></root>", out.toString());
+    }
+}
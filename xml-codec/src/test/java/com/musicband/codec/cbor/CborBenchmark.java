@@ -0,0 +1,106 @@
+package com.musicband.codec.cbor;
+
+import com.musicband.codec.cbor.CborBindingTest.Nested;
+import com.musicband.codec.cbor.CborBindingTest.Sample;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-B throughput over CBOR against the same binding over JSON text, writing and reading a list
+ * of records. Not a test, run it from {@code xml-codec}:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.musicband.codec.cbor.CborBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CborBenchmark {
+
+    @Param({"20", "200"})
+    private int size;
+
+    private final Jsonb json = JsonbBuilder.create();
+    private Type type;
+    private List<Sample> samples;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        type = new ArrayList<Sample>() { }.getClass().getGenericSuperclass();
+        samples = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Sample sample = new Sample();
+            sample.name = "Band " + i;
+            sample.count = i + 1;
+            sample.total = 1000L * i;
+            sample.ratio = i + 0.5;
+            sample.price = BigDecimal.valueOf(1999 + i, 2);
+            sample.kind = CborBindingTest.Kind.values()[i % 2];
+            sample.date = LocalDate.of(2024, 1, 1).plusDays(i);
+            sample.nested = new Nested(i * 1000.25, i % 3 == 0 ? null : "label");
+            samples.add(sample);
+        }
+        out = new ByteArrayOutputStream(64 * 1024);
+        json.toJson(samples, type, out);
+        jsonBytes = out.toByteArray();
+        cborBytes = CborBindingTest.cbor(samples, type);
+    }
+
+    @Benchmark
+    public int writeJson() {
+        out.reset();
+        json.toJson(samples, type, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeCbor() {
+        out.reset();
+        CborBinding.write(samples, type, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public List<Sample> readJson() {
+        return json.fromJson(new ByteArrayInputStream(jsonBytes), type);
+    }
+
+    @Benchmark
+    public List<Sample> readCbor() {
+        return CborBinding.read(new ByteArrayInputStream(cborBytes), type);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CborBenchmark.class.getSimpleName()).build()).run();
+    }
+}
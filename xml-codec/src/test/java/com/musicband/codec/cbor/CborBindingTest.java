@@ -0,0 +1,208 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CBOR through {@link CborBinding} carries what JSON-B writes as JSON: the same names, order and
+ * values, and reading it back gives an object that writes the same JSON again.
+ */
+class CborBindingTest {
+
+    private static final Jsonb JSON = JsonbBuilder.create();
+
+    static Stream<Sample> samples() {
+        List<Sample> samples = new ArrayList<>();
+        samples.add(new Sample());
+
+        Sample full = new Sample();
+        full.name = "Tool & <friends> \"live\"";
+        full.count = -17;
+        full.total = Long.MIN_VALUE;
+        full.ratio = 0.1;
+        full.price = new BigDecimal("19.99");
+        full.big = BigInteger.TWO.pow(70).negate();
+        full.active = true;
+        full.kind = Kind.SECOND_ONE;
+        full.date = LocalDate.of(2024, 2, 29);
+        full.tags = List.of("a", "", "ё 東京 🎸");
+        full.counts = new LinkedHashMap<>(Map.of("one", 1));
+        full.nested = new Nested(1.5, null);
+        full.items = List.of(new Nested(-273.15, "x"), new Nested(65504.0, "y"));
+        full.extra = Json.createObjectBuilder()
+                .add("k", Json.createArrayBuilder().add(1).add("v").addNull().add(true).add(2.5))
+                .add("empty", JsonValue.EMPTY_JSON_OBJECT)
+                .build();
+        full.secret = "not written";
+        samples.add(full);
+
+        Sample numbers = new Sample();
+        numbers.count = Integer.MAX_VALUE;
+        numbers.total = 1L << 40;
+        numbers.ratio = 123456.789;
+        numbers.price = BigDecimal.TEN;
+        numbers.big = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        samples.add(numbers);
+
+        Sample large = new Sample();
+        large.name = "ж".repeat(10_000);
+        large.items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            large.items.add(new Nested(i + 0.25, "item " + i));
+        }
+        samples.add(large);
+        return samples.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void carriesTheJsonRepresentation(Sample sample) {
+        assertEquals(JSON.toJson(sample), json(cbor(sample, Sample.class)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void readsBackWhatItWrote(Sample sample) {
+        Sample read = CborBinding.read(new ByteArrayInputStream(cbor(sample, Sample.class)), Sample.class);
+
+        sample.secret = null;
+        assertEquals(JSON.toJson(sample), JSON.toJson(read));
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void bindsGenericLists(Sample sample) {
+        Type type = new ArrayList<Sample>() { }.getClass().getGenericSuperclass();
+        List<Sample> list = List.of(sample, sample);
+
+        List<Sample> read = CborBinding.read(new ByteArrayInputStream(cbor(list, type)), type);
+
+        assertEquals(JSON.toJson(list, type), JSON.toJson(read, type));
+    }
+
+    @Test
+    void readsAndWritesTheObjectModel() {
+        CborJsonProvider provider = new CborJsonProvider();
+        JsonValue value = Json.createReader(new StringReader(
+                "{\"a\":[1,-2,3.25,\"x\",null,false,{}],\"b\":{\"c\":18446744073709551616}}")).readValue();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (JsonWriter writer = provider.createWriter(out)) {
+            writer.write(value);
+        }
+        try (JsonReader reader = provider.createReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(value, reader.readValue());
+        }
+    }
+
+    @Test
+    void keepsCharacterStreamsJson() {
+        CborJsonProvider provider = new CborJsonProvider();
+        StringWriter json = new StringWriter();
+
+        try (JsonGenerator generator = provider.createGenerator(json)) {
+            generator.writeStartObject().write("k", 1).writeEnd();
+        }
+        try (JsonParser parser = provider.createParser(new StringReader(json.toString()))) {
+            parser.next();
+            assertEquals(Json.createObjectBuilder().add("k", 1).build(), parser.getObject());
+        }
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        // A map whose key is an integer, a truncated text string, JSON text
+        for (String body : new String[]{"a10102", "bf646e61", "7b7d"}) {
+            byte[] cbor = HexFormat.of().parseHex(body);
+            assertThrows(JsonbException.class, () -> CborBinding.read(new ByteArrayInputStream(cbor), Sample.class));
+        }
+    }
+
+    static byte[] cbor(Object value, Type type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborBinding.write(value, type, out);
+        return out.toByteArray();
+    }
+
+    // Same events, JSON text out
+    private static String json(byte[] cbor) {
+        StringWriter json = new StringWriter();
+        try (JsonParser parser = new CborParser(new ByteArrayInputStream(cbor));
+             JsonGenerator generator = Json.createGenerator(json)) {
+            CborVectorsTest.copy(parser, generator);
+        }
+        return json.toString();
+    }
+
+    public enum Kind {
+        FIRST, SECOND_ONE
+    }
+
+    public static class Sample {
+        public String name;
+        public Integer count;
+        public Long total;
+        public Double ratio;
+        public BigDecimal price;
+        public BigInteger big;
+        public boolean active;
+        public Kind kind;
+        public LocalDate date;
+        public List<String> tags;
+        public Map<String, Integer> counts;
+        public Nested nested;
+        public List<Nested> items;
+        public JsonObject extra;
+        @JsonbTransient
+        public String secret;
+
+        @Override
+        public String toString() {
+            return "name=" + (name != null && name.length() > 40 ? name.substring(0, 40) + "..." : name)
+                    + ", count=" + count + ", ratio=" + ratio + ", price=" + price;
+        }
+    }
+
+    public static class Nested {
+        public Double x;
+        public String label;
+
+        public Nested() {
+        }
+
+        Nested(Double x, String label) {
+            this.x = x;
+            this.label = label;
+        }
+    }
+}
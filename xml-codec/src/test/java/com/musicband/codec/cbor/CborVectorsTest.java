@@ -0,0 +1,217 @@
+package com.musicband.codec.cbor;
+
+import jakarta.json.Json;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The examples of RFC 8949 Appendix A that map to JSON, in both directions where the generator
+ * has a choice, and decoding only where it writes another valid form (definite lengths, byte strings,
+ * tags). Items without a JSON value must be rejected.
+ */
+class CborVectorsTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 00", "1, 01", "10, 0a", "23, 17", "24, 1818", "25, 1819", "100, 1864", "1000, 1903e8",
+            "1000000, 1a000f4240", "1000000000000, 1b000000e8d4a51000", "-1, 20", "-10, 29", "-100, 3863",
+            "-1000, 3903e7", "9223372036854775807, 1b7fffffffffffffff", "-9223372036854775808, 3b7fffffffffffffff"
+    })
+    void integers(long value, String hex) {
+        assertEquals(hex, encode(generator -> generator.write(value)));
+        assertEquals(value, decodeNumber(hex).getLong());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "18446744073709551615, 1bffffffffffffffff",
+            "18446744073709551616, c249010000000000000000",
+            "-18446744073709551616, 3bffffffffffffffff",
+            "-18446744073709551617, c349010000000000000000"
+    })
+    void bigIntegers(BigInteger value, String hex) {
+        assertEquals(hex, encode(generator -> generator.write(value)));
+        JsonParser parser = decodeNumber(hex);
+        assertEquals(true, parser.isIntegralNumber());
+        assertEquals(new BigDecimal(value), parser.getBigDecimal());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.0, f90000", "-0.0, f98000", "1.0, f93c00", "1.1, fb3ff199999999999a", "1.5, f93e00",
+            "65504.0, f97bff", "100000.0, fa47c35000", "3.4028234663852886e+38, fa7f7fffff",
+            "1.0e+300, fb7e37e43c8800759c", "5.960464477539063e-8, f90001", "0.00006103515625, f90400",
+            "-4.0, f9c400", "-4.1, fbc010666666666666"
+    })
+    void floats(double value, String hex) {
+        assertEquals(hex, encode(generator -> generator.write(value)));
+        assertEquals(Double.toString(value), decodeNumber(hex).getString());
+    }
+
+    @Test
+    void halfPrecisionOnlyWhenExact() {
+        assertEquals(0x7bff, CborGenerator.toHalf(65504f));
+        assertEquals(-1, CborGenerator.toHalf(65536f));
+        assertEquals(0x0001, CborGenerator.toHalf(0x1p-24f));
+        assertEquals(-1, CborGenerator.toHalf(0x1p-25f));
+        assertEquals(0x03ff, CborGenerator.toHalf(0x3ffp-24f));
+        assertEquals(-1, CborGenerator.toHalf(0x7ffp-25f));
+        assertEquals(-1, CborGenerator.toHalf(1.0f + 0x1p-11f));
+        // Every finite half maps back to its own bits, with either sign
+        for (int half = 0; half < 0x7c00; half++) {
+            float value = (float) Double.parseDouble(decodeNumber(String.format("f9%04x", half)).getString());
+            assertEquals(half, CborGenerator.toHalf(value));
+            assertEquals(half | 0x8000, CborGenerator.toHalf(-value));
+        }
+    }
+
+    @Test
+    void decimalFractions() {
+        // RFC 8949 section 3.4.4
+        assertEquals("c48221196ab3", encode(generator -> generator.write(new BigDecimal("273.15"))));
+        assertEquals(new BigDecimal("273.15"), decodeNumber("c48221196ab3").getBigDecimal());
+        assertEquals("1864", encode(generator -> generator.write(new BigDecimal("1.00E+2"))));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "false | f4", "true | f5", "null | f6",
+            "\"\" | 60", "\"a\" | 6161", "\"IETF\" | 6449455446", "\"\\\"\\\\\" | 62225c",
+            "\"ü\" | 62c3bc", "\"水\" | 63e6b0b4", "\"𐅑\" | 64f0908591",
+            "[] | 9fff",
+            "[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25]"
+                    + " | 9f0102030405060708090a0b0c0d0e0f101112131415161718181819ff",
+            "{\"a\":1,\"b\":[2,3]} | bf61610161629f0203ffff",
+            "{\"Fun\":true,\"Amt\":-2} | bf6346756ef563416d7421ff"
+    })
+    void encodesJson(String json, String hex) {
+        JsonValue value = Json.createReader(new StringReader(json)).readValue();
+        assertEquals(hex, encode(generator -> generator.write(value)));
+        assertEquals(json, decode(hex));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "null | f7",
+            "\"\" | 40", "\"AQIDBA==\" | 4401020304", "\"AQIDBAU=\" | 5f42010243030405ff",
+            "\"streaming\" | 7f657374726561646d696e67ff",
+            "\"2013-03-21T20:04:00Z\" | c074323031332d30332d32315432303a30343a30305a",
+            "1363896240 | c11a514b67b0", "1363896240.5 | c1fb41d452d9ec200000",
+            "\"AQIDBA==\" | d74401020304", "\"ZElFVEY=\" | d818456449455446",
+            "\"http://www.example.com\" | d82076687474703a2f2f7777772e6578616d706c652e636f6d",
+            "[] | 80", "[1,2,3] | 83010203", "{} | a0",
+            "[1,[2,3],[4,5]] | 8301820203820405",
+            "[1,[2,3],[4,5]] | 9f018202039f0405ffff",
+            "[1,[2,3],[4,5]] | 9f01820203820405ff",
+            "[1,[2,3],[4,5]] | 83018202039f0405ff",
+            "[1,[2,3],[4,5]] | 83019f0203ff820405",
+            "[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25]"
+                    + " | 98190102030405060708090a0b0c0d0e0f101112131415161718181819",
+            "{\"a\":1,\"b\":[2,3]} | a26161016162820203",
+            "[\"a\",{\"b\":\"c\"}] | 826161a161626163",
+            "[\"a\",{\"b\":\"c\"}] | 826161bf61626163ff",
+            "{\"a\":\"A\",\"b\":\"B\",\"c\":\"C\",\"d\":\"D\",\"e\":\"E\"}"
+                    + " | a56161614161626142616361436164614461656145",
+            "1.5 | fa3fc00000", "1.5 | fb3ff8000000000000"
+    })
+    void decodesOtherForms(String json, String hex) {
+        assertEquals(json, decode(hex));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Infinity and NaN in every width, simple values, integer map keys
+            "f97c00", "f97e00", "f9fc00", "fa7f800000", "fa7fc00000", "faff800000",
+            "fb7ff0000000000000", "fb7ff8000000000000", "fbfff0000000000000",
+            "f0", "f818", "f8ff", "a201020304",
+            // Truncated, and a break outside of an indefinite item
+            "1903", "62c3", "9f01", "ff", "a16161"
+    })
+    void rejectsWhatJsonCannotHold(String hex) {
+        assertThrows(JsonParsingException.class, () -> decode(hex));
+    }
+
+    @Test
+    void rejectsNonFiniteDoubles() {
+        assertThrows(NumberFormatException.class, () -> encode(generator -> generator.write(Double.NaN)));
+        assertThrows(NumberFormatException.class,
+                () -> encode(generator -> generator.write(Double.NEGATIVE_INFINITY)));
+    }
+
+    @Test
+    void writesStringsAcrossTheBuffer() {
+        String text = "ж".repeat(5000) + "x".repeat(9000);
+        String json = Json.createArrayBuilder().add(text).add(text.substring(100)).build().toString();
+
+        assertEquals(json, decode(encode(generator ->
+                generator.writeStartArray().write(text).write(text.substring(100)).writeEnd())));
+    }
+
+    static String encode(Consumer<JsonGenerator> events) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = new CborGenerator(out);
+        events.accept(generator);
+        generator.close();
+        return HEX.formatHex(out.toByteArray());
+    }
+
+    /**
+     * The single data item in {@code hex} as compact JSON text, byte strings in base64.
+     */
+    static String decode(String hex) {
+        StringWriter json = new StringWriter();
+        try (JsonParser parser = new CborParser(new ByteArrayInputStream(HEX.parseHex(hex)));
+             JsonGenerator generator = Json.createGenerator(json)) {
+            copy(parser, generator);
+        }
+        return json.toString();
+    }
+
+    static void copy(JsonParser parser, JsonGenerator generator) {
+        while (parser.hasNext()) {
+            switch (parser.next()) {
+                case START_OBJECT -> generator.writeStartObject();
+                case START_ARRAY -> generator.writeStartArray();
+                case END_OBJECT, END_ARRAY -> generator.writeEnd();
+                case KEY_NAME -> generator.writeKey(parser.getString());
+                case VALUE_STRING -> generator.write(parser.getString());
+                case VALUE_NUMBER -> {
+                    if (parser.isIntegralNumber()) {
+                        generator.write(parser.getBigDecimal().toBigIntegerExact());
+                    } else {
+                        generator.write(parser.getBigDecimal());
+                    }
+                }
+                case VALUE_TRUE -> generator.write(true);
+                case VALUE_FALSE -> generator.write(false);
+                case VALUE_NULL -> generator.writeNull();
+            }
+        }
+    }
+
+    private static JsonParser decodeNumber(String hex) {
+        JsonParser parser = new CborParser(new ByteArrayInputStream(HEX.parseHex(hex)));
+        assertEquals(JsonParser.Event.VALUE_NUMBER, parser.next());
+        return parser;
+    }
+}
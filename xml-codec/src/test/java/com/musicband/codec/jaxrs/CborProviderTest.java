@@ -0,0 +1,65 @@
+package com.musicband.codec.jaxrs;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CborProviderTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+    private static final MediaType CBOR = new MediaType("application", "cbor");
+
+    @Test
+    void leavesTheEntityStreamOpen() {
+        TrackingStream out = new TrackingStream();
+        Entry entry = new Entry();
+        entry.name = "a";
+        entry.values = List.of(1, 2);
+
+        new CborProvider().writeTo(entry, Entry.class, Entry.class, NO_ANNOTATIONS, CBOR, null, out);
+
+        assertFalse(out.closed);
+        Entry read = (Entry) read(out.toByteArray());
+        assertEquals("a", read.name);
+        assertEquals(List.of(1, 2), read.values);
+    }
+
+    @Test
+    void leavesStreamsToTheContainer() {
+        CborProvider provider = new CborProvider();
+
+        assertTrue(provider.isWriteable(Entry.class, Entry.class, NO_ANNOTATIONS, CBOR));
+        assertFalse(provider.isWriteable(String.class, String.class, NO_ANNOTATIONS, CBOR));
+        assertFalse(provider.isWriteable(int.class, int.class, NO_ANNOTATIONS, CBOR));
+        assertFalse(provider.isWriteable(StreamingOutput.class, StreamingOutput.class, NO_ANNOTATIONS, CBOR));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object read(byte[] cbor) {
+        return new CborProvider().readFrom((Class) Entry.class, Entry.class, NO_ANNOTATIONS, CBOR, null,
+                new ByteArrayInputStream(cbor));
+    }
+
+    public static class Entry {
+        public String name;
+        public List<Integer> values;
+    }
+
+    private static final class TrackingStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
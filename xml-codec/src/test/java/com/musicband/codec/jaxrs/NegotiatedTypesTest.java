@@ -0,0 +1,46 @@
+package com.musicband.codec.jaxrs;
+
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NegotiatedTypesTest {
+
+    private static final MediaType CBOR = new MediaType("application", "cbor");
+
+    @Test
+    void prefersXmlAtEqualQuality() {
+        assertEquals(MediaType.APPLICATION_XML_TYPE, select(MediaType.WILDCARD_TYPE));
+        assertEquals(MediaType.APPLICATION_XML_TYPE, select(new MediaType("application", "*")));
+        assertEquals(MediaType.APPLICATION_XML_TYPE,
+                select(CBOR, MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE));
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, select(CBOR, MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    @Test
+    void followsTheClientQuality() {
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, select(MediaType.APPLICATION_JSON_TYPE));
+        assertEquals(CBOR, select(CBOR, q(MediaType.APPLICATION_XML_TYPE, "0.5")));
+        // The specific range overrides the wildcard for XML only
+        assertEquals(MediaType.APPLICATION_JSON_TYPE,
+                select(q(MediaType.APPLICATION_XML_TYPE, "0.1"), MediaType.WILDCARD_TYPE));
+        assertEquals(MediaType.APPLICATION_XML_TYPE, select(q(CBOR, "0"), MediaType.WILDCARD_TYPE));
+    }
+
+    @Test
+    void fallsBackToXml() {
+        assertEquals(MediaType.APPLICATION_XML_TYPE, select(MediaType.TEXT_HTML_TYPE));
+    }
+
+    private static MediaType select(MediaType... acceptable) {
+        return NegotiatedTypes.select(List.of(acceptable));
+    }
+
+    private static MediaType q(MediaType type, String q) {
+        return new MediaType(type.getType(), type.getSubtype(), Map.of("q", q));
+    }
+}
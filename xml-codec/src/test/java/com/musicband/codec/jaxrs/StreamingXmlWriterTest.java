@@ -0,0 +1,239 @@
+package com.musicband.codec.jaxrs;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.musicband.codec.XmlValues.writeElement;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A hand-written writer must produce the bytes {@link XmlCodecProvider} produces through JAXB,
+ * which is what {@code -Dxml.codec.jaxb=true} falls back to.
+ */
+class StreamingXmlWriterTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    static Stream<Sample> samples() {
+        List<Sample> samples = new ArrayList<>();
+        samples.add(new Sample());
+
+        Sample full = new Sample();
+        full.code = "a1";
+        full.text = "plain";
+        full.count = 42;
+        full.total = Long.MAX_VALUE;
+        full.ratio = 0.1;
+        full.kind = Sample.Kind.SECOND_ONE;
+        full.items = List.of("one", "two");
+        samples.add(full);
+
+        Sample markup = new Sample();
+        markup.code = "<\"quoted\" & 'single'>";
+        markup.text = "a & b < c > d \"e\" 'f' ]]>";
+        samples.add(markup);
+
+        Sample whitespace = new Sample();
+        whitespace.code = "tab\tline\nreturn\r";
+        whitespace.text = "line\r\nnext\rlast\n\ttab";
+        samples.add(whitespace);
+
+        Sample unicode = new Sample();
+        unicode.code = "é";
+        unicode.text = "Ærø – 東京 🎸 ё";
+        unicode.items = List.of("\u00a0", "\ufffd", "\u2028");
+        samples.add(unicode);
+
+        Sample empty = new Sample();
+        empty.code = "";
+        empty.text = "";
+        empty.items = List.of();
+        samples.add(empty);
+
+        for (double ratio : new double[]{0.0, -0.0, 1.0, -1.5, 1e7, 1.0E-5, 123456789.125, Double.MIN_VALUE,
+                Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            Sample number = new Sample();
+            number.ratio = ratio;
+            number.count = Integer.MIN_VALUE;
+            number.total = 0L;
+            samples.add(number);
+        }
+
+        for (Sample.Kind kind : Sample.Kind.values()) {
+            Sample constant = new Sample();
+            constant.kind = kind;
+            samples.add(constant);
+        }
+
+        // Longer than the 8 KiB buffer, with multi-byte characters across the flushes
+        Sample large = new Sample();
+        large.text = "ж&".repeat(6000);
+        large.items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            large.items.add("item " + i + " <" + i + ">");
+        }
+        samples.add(large);
+
+        return samples.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void writesSameBytesAsJaxb(Sample sample) throws IOException {
+        assertEquals(new String(jaxb(sample), StandardCharsets.UTF_8),
+                new String(streaming(sample), StandardCharsets.UTF_8));
+        assertArrayEquals(jaxb(sample), streaming(sample));
+    }
+
+    @Test
+    void writesUtf8OnlyForItsOwnType() {
+        SampleXmlWriter writer = new SampleXmlWriter();
+
+        assertTrue(writer.isWriteable(Sample.class, Sample.class, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE));
+        assertTrue(writer.isWriteable(Sample.class, Sample.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE.withCharset("utf-8")));
+        assertFalse(writer.isWriteable(Sample.class, Sample.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE.withCharset("ISO-8859-1")));
+        assertFalse(writer.isWriteable(Object.class, Object.class, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE));
+    }
+
+    @Test
+    void jaxbFallbackTurnsStreamingWritersOff() throws Exception {
+        String previous = System.setProperty("xml.codec.jaxb", "true");
+        try (URLClassLoader loader = new ChildFirstLoader(
+                StreamingXmlWriter.class.getProtectionDomain().getCodeSource().getLocation(),
+                SampleXmlWriter.class.getProtectionDomain().getCodeSource().getLocation())) {
+            // A fresh copy of the classes reads the property again
+            Class<?> sampleType = loader.loadClass(Sample.class.getName());
+            Object writer = loader.loadClass(SampleXmlWriter.class.getName())
+                    .getDeclaredConstructor().newInstance();
+
+            Object writeable = writer.getClass()
+                    .getMethod("isWriteable", Class.class, Type.class, Annotation[].class, MediaType.class)
+                    .invoke(writer, sampleType, sampleType, NO_ANNOTATIONS, MediaType.APPLICATION_XML_TYPE);
+            assertEquals(Boolean.FALSE, writeable);
+        } finally {
+            if (previous != null) {
+                System.setProperty("xml.codec.jaxb", previous);
+            } else {
+                System.clearProperty("xml.codec.jaxb");
+            }
+        }
+    }
+
+    private static byte[] jaxb(Sample sample) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlCodecProvider().writeTo(sample, Sample.class, Sample.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] streaming(Sample sample) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SampleXmlWriter().writeTo(sample, Sample.class, Sample.class, NO_ANNOTATIONS,
+                MediaType.APPLICATION_XML_TYPE, null, out);
+        return out.toByteArray();
+    }
+
+    @XmlRootElement(name = "sample")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Sample {
+
+        public enum Kind {
+            FIRST, SECOND_ONE
+        }
+
+        @XmlAttribute
+        String code;
+        String text;
+        Integer count;
+        Long total;
+        Double ratio;
+        Kind kind;
+        @XmlElementWrapper(name = "items")
+        @XmlElement(name = "item")
+        List<String> items;
+
+        @Override
+        public String toString() {
+            String shown = text != null && text.length() > 40 ? text.substring(0, 40) + "..." : text;
+            return "code=" + code + ", text=" + shown + ", ratio=" + ratio + ", kind=" + kind;
+        }
+    }
+
+    public static class SampleXmlWriter extends StreamingXmlWriter<Sample> {
+
+        public SampleXmlWriter() {
+            super(Sample.class);
+        }
+
+        @Override
+        protected void write(XMLStreamWriter writer, Sample sample) throws XMLStreamException {
+            writer.writeStartElement("sample");
+            if (sample.code != null) {
+                writer.writeAttribute("code", sample.code);
+            }
+            writeElement(writer, "text", sample.text);
+            writeElement(writer, "count", sample.count);
+            writeElement(writer, "total", sample.total);
+            writeElement(writer, "ratio", sample.ratio);
+            writeElement(writer, "kind", sample.kind);
+            if (sample.items != null) {
+                writer.writeStartElement("items");
+                for (String item : sample.items) {
+                    writeElement(writer, "item", item);
+                }
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    private static final class ChildFirstLoader extends URLClassLoader {
+
+        ChildFirstLoader(URL... urls) {
+            super(urls, StreamingXmlWriterTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith("com.musicband.codec.")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    loaded = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+    }
+}